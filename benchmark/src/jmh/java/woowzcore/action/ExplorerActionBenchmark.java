@@ -0,0 +1,506 @@
+package woowzcore.action;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Бенчмарки (JMH) для {@link ExplorerAction}, на файлах из этого репозитория (<code>images/</code>, <code>videos/</code>,
+ * <code>folders/</code>, <code>data/</code>, <code>idk/</code>) и на сгенерированных деревьях папок заданного размера<br>
+ * Пропускная способность и задержки (<code>Throughput</code>, <code>SampleTime</code>), выделение памяти - через {@link GCProfiler}<br>
+ * Сборка: <code>mvn -f benchmark/pom.xml package</code> (исходник {@link ExplorerAction} берётся из <code>scripts/file-java.java</code>)<br>
+ * Запуск из корня репозитория: <code>java -jar benchmark/target/benchmarks.jar -prof gc</code>, или {@link #main(String[])}<br>
+ * Корень репозитория можно указать через <code>-Dgitexplorer.root=...</code>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExplorerActionBenchmark {
+    /**
+     * Корень репозитория (где лежат папки с файлами)
+     */
+    public static final String ROOT = System.getProperty("gitexplorer.root", ".");
+
+    /**
+     * Папки репозитория, файлы из которых используются в бенчмарках
+     */
+    public static final String[] CORPUS = {"images", "videos", "folders", "data", "idk"};
+
+    /**
+     * Запускает все бенчмарки с {@link GCProfiler}, результаты сохраняются в <code>jmh-result.json</code>
+     * @param Args Регулярное выражение для выбора бенчмарков (необязательно)
+     * @throws Exception Если не получилось запустить бенчмарки
+     */
+    public static void main(String[] Args) throws Exception {
+        Options Options = new OptionsBuilder()
+                .include(Args.length > 0 ? Args[0] : ExplorerActionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-Dgitexplorer.root=" + Paths.get(ROOT).toAbsolutePath())
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build();
+        new Runner(Options).run();
+    }
+
+    /**
+     * Копия одной папки репозитория во временной папке (чтобы запись и сжатие не меняли репозиторий)
+     */
+    @State(Scope.Thread)
+    public static class CORPUS_STATE{
+        @Param({"images", "videos", "folders", "data", "idk"})
+        public String Folder;
+
+        Path Copy;
+        Path Target;
+        List<String> Files;
+        List<String> Texts;
+        List<byte[]> Contents;
+        int Next = 0;
+
+        @Setup(Level.Trial)
+        public void Setup() throws Exception {
+            Copy = java.nio.file.Files.createTempDirectory("gitexplorer-corpus");
+            Files = CopyFolder(Paths.get(ROOT, Folder), Copy);
+            if (Files.isEmpty()) throw new IllegalStateException("Папка [" + Folder + "] пустая, или не найдена в [" + ROOT + "]");
+
+            /* ReadFile читает только текст, бинарные файлы бы мерили выброс исключения */
+            Texts = new ArrayList<>();
+            Contents = new ArrayList<>();
+            for (String File : Files) {
+                Contents.add(java.nio.file.Files.readAllBytes(Paths.get(File)));
+                try {
+                    ExplorerAction.ReadFile(File);
+                    Texts.add(File);
+                } catch (Exception ignored) {
+                }
+            }
+            Target = java.nio.file.Files.createFile(Copy.resolve("write-target"));
+        }
+
+        @TearDown(Level.Trial)
+        public void TearDown() throws IOException { Delete(Copy); }
+
+        int Next(int Size){
+            if (Next >= Size) Next = 0;
+            return Next++;
+        }
+    }
+
+    @Benchmark
+    public byte[] ReadFileBytes(CORPUS_STATE State) throws Exception {
+        return ExplorerAction.ReadFileBytes(State.Files.get(State.Next(State.Files.size())));
+    }
+
+    @Benchmark
+    public ByteBuffer ReadFileBuffer(CORPUS_STATE State) throws Exception {
+        ByteBuffer Result = ExplorerAction.ReadFileBuffer(State.Files.get(State.Next(State.Files.size())));
+        ExplorerAction.BUFFERS.Release(Result);
+        return Result;
+    }
+
+    @Benchmark
+    public String ReadFile(CORPUS_STATE State) throws Exception {
+        if (State.Texts.isEmpty()) return null;
+        return ExplorerAction.ReadFile(State.Texts.get(State.Next(State.Texts.size())));
+    }
+
+    @Benchmark
+    public String WriteFile(CORPUS_STATE State) throws Exception {
+        ExplorerAction.WriteFile(State.Target.toString(), State.Contents.get(State.Next(State.Contents.size())));
+        return State.Target.toString();
+    }
+
+    @Benchmark
+    public ExplorerAction.FORMAT GetFileFormat(CORPUS_STATE State) throws Exception {
+        return ExplorerAction.GetFileFormat(State.Files.get(State.Next(State.Files.size())));
+    }
+
+    /**
+     * {@link #GetFileFormat(CORPUS_STATE)} без кэша: после первого прохода по папке все ответы лежат в кэше,
+     * поэтому кэш очищается перед каждым вызовом, и меряется само чтение первых байтов и поиск сигнатуры
+     */
+    @Benchmark
+    public ExplorerAction.FORMAT GetFileFormatUncached(CORPUS_STATE State) throws Exception {
+        ExplorerAction.SNIFFER.ClearCache();
+        return ExplorerAction.GetFileFormat(State.Files.get(State.Next(State.Files.size())));
+    }
+
+    /**
+     * Файл для сжатия: файлы из репозитория, склеенные до нужного размера<br>
+     * {@link ExplorerAction#CompressFile(String, String)} удаляет исходный файл, поэтому он пишется заново перед каждым вызовом
+     */
+    @State(Scope.Thread)
+    public static class COMPRESS_STATE{
+        @Param({"65536", "1048576", "16777216"})
+        public int Size;
+
+        Path Folder;
+        String Source;
+        String Target;
+        byte[] Content;
+
+        @Setup(Level.Trial)
+        public void Setup() throws IOException {
+            Folder = Files.createTempDirectory("gitexplorer-compress");
+            Source = Folder.resolve("source.bin").toString();
+            Target = Folder.resolve("source.bin.gz").toString();
+
+            List<byte[]> Parts = new ArrayList<>();
+            for (String Corpus : CORPUS) {
+                try (Stream<Path> Walk = Files.walk(Paths.get(ROOT, Corpus))) {
+                    for (Path File : Walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) Parts.add(Files.readAllBytes(File));
+                }
+            }
+            Content = new byte[Size];
+            int Offset = 0;
+            for (int i = 0; Offset < Size && !Parts.isEmpty(); i = (i + 1) % Parts.size()) {
+                int Length = Math.min(Parts.get(i).length, Size - Offset);
+                System.arraycopy(Parts.get(i), 0, Content, Offset, Length);
+                Offset += Length;
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void Write() throws IOException { Files.write(Paths.get(Source), Content); }
+
+        @TearDown(Level.Trial)
+        public void TearDown() throws IOException { Delete(Folder); }
+    }
+
+    /**
+     * Параллельное сжатие, масштабирование по количеству потоков ({@link THREADS_STATE})
+     */
+    @Benchmark
+    public String CompressFile(COMPRESS_STATE State, THREADS_STATE Threads) throws Exception {
+        ExplorerAction.CompressFile(State.Source, State.Target, java.util.zip.Deflater.DEFAULT_COMPRESSION, 128 * 1024, Threads.Threads);
+        return State.Target;
+    }
+
+    /**
+     * Старое однопоточное сжатие ({@link ExplorerAction#CompressFile(String, String)}), для сравнения с {@link #CompressFile(COMPRESS_STATE, THREADS_STATE)}
+     */
+    @Benchmark
+    public String CompressFileSequential(COMPRESS_STATE State) throws Exception {
+        ExplorerAction.CompressFile(State.Source, State.Target);
+        return State.Target;
+    }
+
+    /**
+     * Сгенерированное дерево папок: Files файлов, по Fanout под папок в каждой папке, расширения как в репозитории
+     */
+    @State(Scope.Benchmark)
+    public static class TREE_STATE{
+        @Param({"1000", "10000", "100000"})
+        public int Files;
+
+        @Param({"10"})
+        public int Fanout;
+
+        Path Root;
+
+        @Setup(Level.Trial)
+        public void Setup() throws IOException {
+            Root = java.nio.file.Files.createTempDirectory("gitexplorer-tree");
+            Tree(Root, Files, Fanout);
+        }
+
+        @TearDown(Level.Trial)
+        public void TearDown() throws IOException { Delete(Root); }
+    }
+
+    @Benchmark
+    public List<String> GetAllFilesInFolderFlat(TREE_STATE State) throws Exception {
+        return ExplorerAction.GetAllFilesInFolder(State.Root.toString(), false);
+    }
+
+    @Benchmark
+    public List<String> GetAllFilesInFolderRecursive(TREE_STATE State) throws Exception {
+        return ExplorerAction.GetAllFilesInFolder(State.Root.toString(), true);
+    }
+
+    @Benchmark
+    public List<String> GetAllFilesInFolderRecursiveFiltered(TREE_STATE State) throws Exception {
+        return ExplorerAction.GetAllFilesInFolder(State.Root.toString(), new ExplorerAction.FILTER().Extension("png", "json").Recursive());
+    }
+
+    @Benchmark
+    public List<String> GetAllFilesInFolderCorpus(CURSOR Cursor) throws Exception {
+        /* Абсолютный путь, иначе относительный путь сначала ищется в classpath */
+        return ExplorerAction.GetAllFilesInFolder(Paths.get(ROOT, CORPUS[Cursor.Next(CORPUS.length)]).toAbsolutePath().toString(), true);
+    }
+
+    /**
+     * Количество потоков для параллельных версий (обход папок, сжатие)
+     */
+    @State(Scope.Benchmark)
+    public static class THREADS_STATE{
+        @Param({"1", "2", "4", "8"})
+        public int Threads;
+    }
+
+    @Benchmark
+    public List<String> GetAllFilesInFolderParallel(TREE_STATE Tree, THREADS_STATE State) throws Exception {
+        return ExplorerAction.GetAllFilesInFolderParallel(Tree.Root.toString(), new ExplorerAction.FILTER().Recursive(), State.Threads);
+    }
+
+    /**
+     * Сгенерированный Jar со всеми папками репозитория внутри {@link ExplorerAction.JAR#Prefix}<br>
+     * {@link ExplorerAction.JAR} читает ресурсы через свой ClassLoader, поэтому {@link ExplorerAction} загружается заново,
+     * отдельным {@link URLClassLoader}, в котором этот Jar идёт первым
+     */
+    @State(Scope.Benchmark)
+    public static class JAR_STATE{
+        @Param({"false", "true"})
+        public boolean Cache;
+
+        Path Folder;
+        URLClassLoader Loader;
+        MethodHandle ReadFile;
+        MethodHandle ReadFileBytes;
+        MethodHandle GetAllFilesInFolder;
+        List<String> Files;
+        List<String> Texts;
+
+        @Setup(Level.Trial)
+        public void Setup() throws Throwable {
+            Folder = java.nio.file.Files.createTempDirectory("gitexplorer-jar");
+            Path Jar = Folder.resolve("assets.jar");
+            Files = new ArrayList<>();
+            try (JarOutputStream OUT = new JarOutputStream(java.nio.file.Files.newOutputStream(Jar))) {
+                PutFolder(OUT, ExplorerAction.JAR.Prefix);
+                for (String Corpus : CORPUS) {
+                    Path Source = Paths.get(ROOT, Corpus);
+                    try (Stream<Path> Walk = java.nio.file.Files.walk(Source)) {
+                        for (Path Item : Walk.sorted().collect(Collectors.toList())) {
+                            String Name = Corpus + (Item.equals(Source) ? "" : "/" + Source.relativize(Item).toString().replace(File.separatorChar, '/'));
+                            if (java.nio.file.Files.isDirectory(Item)) {
+                                PutFolder(OUT, ExplorerAction.JAR.Prefix + Name + "/");
+                            } else {
+                                OUT.putNextEntry(new JarEntry(ExplorerAction.JAR.Prefix + Name));
+                                java.nio.file.Files.copy(Item, OUT);
+                                OUT.closeEntry();
+                                Files.add(Name);
+                            }
+                        }
+                    }
+                }
+            }
+
+            List<URL> URLs = new ArrayList<>();
+            URLs.add(Jar.toUri().toURL());
+            for (String Entry : System.getProperty("java.class.path").split(File.pathSeparator)) URLs.add(Paths.get(Entry).toUri().toURL());
+            Loader = new URLClassLoader(URLs.toArray(new URL[0]), ClassLoader.getPlatformClassLoader());
+
+            MethodHandles.Lookup Lookup = MethodHandles.publicLookup();
+            Class<?> JAR = Loader.loadClass(ExplorerAction.JAR.class.getName());
+            ReadFile = Lookup.findStatic(JAR, "ReadFile", MethodType.methodType(String.class, String.class));
+            ReadFileBytes = Lookup.findStatic(JAR, "ReadFileBytes", MethodType.methodType(byte[].class, String.class));
+            GetAllFilesInFolder = Lookup.findStatic(JAR, "GetAllFilesInFolder", MethodType.methodType(List.class, String.class, boolean.class));
+            if (Cache) {
+                Class<?> CACHE = Loader.loadClass(ExplorerAction.JAR.CACHE.class.getName());
+                Lookup.findStatic(CACHE, "Enable", MethodType.methodType(void.class, long.class)).invoke(256L * 1024 * 1024);
+            }
+
+            Texts = new ArrayList<>();
+            for (String File : Files) {
+                try {
+                    String Ignored = (String) ReadFile.invokeExact(File);
+                    if (File.startsWith("data/")) Texts.add(File);
+                } catch (Exception ignored) {
+                }
+            }
+            if (Texts.isEmpty()) Texts.addAll(Files);
+        }
+
+        @TearDown(Level.Trial)
+        public void TearDown() throws IOException {
+            Loader.close();
+            Delete(Folder);
+        }
+
+        private static void PutFolder(JarOutputStream OUT, String Name) throws IOException {
+            OUT.putNextEntry(new JarEntry(Name));
+            OUT.closeEntry();
+        }
+    }
+
+    /**
+     * Номер следующего файла или папки, свой на каждый поток
+     */
+    @State(Scope.Thread)
+    public static class CURSOR{
+        int Next = 0;
+
+        int Next(int Size){
+            if (Next >= Size) Next = 0;
+            return Next++;
+        }
+    }
+
+    @Benchmark
+    public String JARReadFile(JAR_STATE State, CURSOR Cursor) throws Throwable {
+        return (String) State.ReadFile.invokeExact(State.Texts.get(Cursor.Next(State.Texts.size())));
+    }
+
+    @Benchmark
+    public byte[] JARReadFileBytes(JAR_STATE State, CURSOR Cursor) throws Throwable {
+        return (byte[]) State.ReadFileBytes.invokeExact(State.Files.get(Cursor.Next(State.Files.size())));
+    }
+
+    @Benchmark
+    public List<?> JARGetAllFilesInFolderFlat(JAR_STATE State, CURSOR Cursor) throws Throwable {
+        return (List<?>) State.GetAllFilesInFolder.invokeExact(CORPUS[Cursor.Next(CORPUS.length)], false);
+    }
+
+    @Benchmark
+    public List<?> JARGetAllFilesInFolderRecursive(JAR_STATE State) throws Throwable {
+        return (List<?>) State.GetAllFilesInFolder.invokeExact("", true);
+    }
+
+    /**
+     * Пути до всех файлов репозитория, в разном виде (как пишут пользователи: <code>\\</code>, двойные <code>/</code>, пробелы)
+     */
+    @State(Scope.Thread)
+    public static class PATH_STATE{
+        String[] Paths;
+        int Next = 0;
+
+        @Setup(Level.Trial)
+        public void Setup() throws IOException {
+            List<String> Result = new ArrayList<>();
+            for (String Corpus : CORPUS) {
+                try (Stream<Path> Walk = Files.walk(java.nio.file.Paths.get(ROOT, Corpus))) {
+                    for (Path Item : Walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                        String Name = ExplorerAction.JAR.Prefix + Corpus + "/" + java.nio.file.Paths.get(ROOT, Corpus).relativize(Item).toString().replace(File.separatorChar, '/');
+                        Result.add(Name);
+                        Result.add(" C:\\\\" + Name.replace('/', '\\') + "\\ ");
+                        Result.add("//" + Name.replace("/", "//") + "/");
+                    }
+                }
+            }
+            Paths = Result.toArray(new String[0]);
+        }
+
+        String Next(){
+            if (Next >= Paths.length) Next = 0;
+            return Paths[Next++];
+        }
+    }
+
+    @Benchmark
+    public String PATHFixPath(PATH_STATE State){ return ExplorerAction.PATH.FixPath(State.Next()); }
+
+    @Benchmark
+    public String PATHGetFileName(PATH_STATE State){ return ExplorerAction.PATH.GetFileName(State.Next()); }
+
+    @Benchmark
+    public String PATHGetClearFileName(PATH_STATE State){
+        try {
+            return ExplorerAction.PATH.GetClearFileName(State.Next());
+        } catch (Exception e) {
+            /* Файлы без расширения (folders/) тоже меряются, вместе с исключением */
+            return null;
+        }
+    }
+
+    @Benchmark
+    public String PATHShortResourcePath(PATH_STATE State){ return ExplorerAction.PATH.ShortResourcePath(State.Next()); }
+
+    @Benchmark
+    public ExplorerAction.PATH.KEY PATHKey(PATH_STATE State){ return new ExplorerAction.PATH.KEY(State.Next()); }
+
+    /**
+     * Копирует папку (вместе с под папками)
+     * @param Source Откуда
+     * @param Target Куда
+     * @return Пути до скопированных файлов
+     */
+    static List<String> CopyFolder(Path Source, Path Target) throws IOException {
+        List<String> Result = new ArrayList<>();
+        try (Stream<Path> Walk = Files.walk(Source)) {
+            for (Path File : Walk.sorted().collect(Collectors.toList())) {
+                Path To = Target.resolve(Source.relativize(File).toString());
+                if (Files.isDirectory(File)) {
+                    Files.createDirectories(To);
+                } else {
+                    Files.copy(File, To);
+                    Result.add(To.toString());
+                }
+            }
+        }
+        return Result;
+    }
+
+    /**
+     * Создаёт дерево папок: файлы раскладываются по папкам поровну, в каждой папке до Fanout под папок
+     * @param Root Корневая папка
+     * @param Count Количество файлов
+     * @param Fanout Количество под папок в каждой папке
+     */
+    static void Tree(Path Root, int Count, int Fanout) throws IOException {
+        String[] Extensions = {"png", "jpeg", "gif", "mp4", "webm", "json", "xml", "yml", "ini", "db", "lock", "txt"};
+        int PerFolder = Math.max(Fanout, 1);
+        List<Path> Folders = new ArrayList<>();
+        Folders.add(Root);
+        byte[] Content = "gitexplorer".getBytes();
+        for (int i = 0, Folder = 0; i < Count; i++) {
+            if (i > 0 && i % PerFolder == 0) {
+                /* Новая папка - под папка одной из уже созданных, поэтому дерево растёт и вглубь, и вширь */
+                Path Parent = Folders.get((Folders.size() - 1) / Math.max(Fanout, 1));
+                Path Next = Parent.resolve("dir" + Folders.size());
+                Files.createDirectory(Next);
+                Folders.add(Next);
+                Folder = Folders.size() - 1;
+            }
+            Files.write(Folders.get(Folder).resolve("file-" + i + "." + Extensions[i % Extensions.length]), Content);
+        }
+    }
+
+    /**
+     * Удаляет папку (вместе с под папками)
+     * @param Folder Папка
+     */
+    static void Delete(Path Folder) throws IOException {
+        if (Folder == null || !Files.exists(Folder)) return;
+        try (Stream<Path> Walk = Files.walk(Folder)) {
+            for (Path File : Walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) Files.delete(File);
+        }
+    }
+}
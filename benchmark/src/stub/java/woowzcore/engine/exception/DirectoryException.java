@@ -0,0 +1,10 @@
+package woowzcore.engine.exception;
+
+/**
+ * Заглушка исключения из движка (woowzcore.engine), только для сборки бенчмарков без движка
+ */
+public class DirectoryException extends Exception {
+    public DirectoryException(String Message){ super(Message); }
+
+    public DirectoryException(String Message, Throwable Cause){ super(Message, Cause); }
+}
@@ -0,0 +1,10 @@
+package woowzcore.engine.exception;
+
+/**
+ * Заглушка исключения из движка (woowzcore.engine), только для сборки бенчмарков без движка
+ */
+public class DirectoryNotFoundException extends Exception {
+    public DirectoryNotFoundException(String Message){ super(Message); }
+
+    public DirectoryNotFoundException(String Message, Throwable Cause){ super(Message, Cause); }
+}
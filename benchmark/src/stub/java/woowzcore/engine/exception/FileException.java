@@ -0,0 +1,10 @@
+package woowzcore.engine.exception;
+
+/**
+ * Заглушка исключения из движка (woowzcore.engine), только для сборки бенчмарков без движка
+ */
+public class FileException extends Exception {
+    public FileException(String Message){ super(Message); }
+
+    public FileException(String Message, Throwable Cause){ super(Message, Cause); }
+}
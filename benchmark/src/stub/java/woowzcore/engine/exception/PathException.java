@@ -0,0 +1,10 @@
+package woowzcore.engine.exception;
+
+/**
+ * Заглушка исключения из движка (woowzcore.engine), только для сборки бенчмарков без движка
+ */
+public class PathException extends Exception {
+    public PathException(String Message){ super(Message); }
+
+    public PathException(String Message, Throwable Cause){ super(Message, Cause); }
+}
@@ -7,21 +7,91 @@ import woowzcore.engine.exception.PathException;
 
 import java.awt.*;
 import java.io.*;
-import java.net.URI;
+import java.lang.management.ManagementFactory;
+import java.net.JarURLConnection;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystem;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InvalidAttributeValueException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanConstructorInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
 
 /**
  * Класс содержит в себе функции для работы с Explorer<br>
@@ -46,7 +116,12 @@ public class ExplorerAction {
      * @return "Существует файл по указанному пути?"
      */
     public static boolean HasFile(String Path){
-        return Files.exists(Paths.get(Path));
+        Path file = Paths.get(Path);
+        INDEX Index = INDEX.Find(file);
+        if (Index != null) {
+            return Index.Get(file) != null;
+        }
+        return Files.exists(file);
     }
 
     /**
@@ -81,289 +156,3530 @@ public class ExplorerAction {
      * @throws FileException Если файл не найден, или не получилось прочитать данные из файла
      */
     public static String ReadFile(String Path) throws FileException{
+        long Start = METRICS.Start();
         try {
-            Path file = Paths.get(Path);
-            if(Files.exists(file)){
-                return Files.readString(file);
-            }else{
-                throw new FileNotFoundException(FILE_NOT_FOUND_MESSAGE);
-            }
+            /* Одно чтение вместо Files.exists + Files.readString, и настоящее количество байтов для METRICS */
+            byte[] Bytes = Files.readAllBytes(Paths.get(Path));
+            String Result = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(Bytes)).toString();
+            METRICS.Done(METRICS.OPERATION.READ_FILE, Start, Bytes.length, 0);
+            return Result;
+        } catch (NoSuchFileException e) {
+            METRICS.Fail(METRICS.OPERATION.READ_FILE, Start);
+            throw new FileException("Не получилось прочитать файл [" + Path + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
         } catch (Exception e) {
+            METRICS.Fail(METRICS.OPERATION.READ_FILE, Start);
             throw new FileException("Не получилось прочитать файл [" + Path + "]!", e);
         }
     }
 
     /**
-     * Записывает (заменяет) данные в указанный файл
+     * Лениво читает указанный файл построчно (UTF-8), не загружая его целиком<br>
+     * Поток нужно закрыть (<code>try-with-resources</code>), ошибки во время чтения выбрасываются как {@link UncheckedIOException}
      * @param Path Путь до файла
-     * @param Content Записываемые данные
-     * @return Записываемые данные
-     * @throws FileException Если файл не найден, или если не получилось записать данные в файл
+     * @return Поток строк файла (без символов конца строки)
+     * @throws FileException Если файл не найден, или не получилось открыть файл
      */
-    public static String WriteFile(String Path, String Content) throws FileException{
+    public static Stream<String> ReadLines(String Path) throws FileException { return ReadLines(Path, StandardCharsets.UTF_8, false); }
+
+    /**
+     * Лениво читает указанный файл построчно, не загружая его целиком<br>
+     * В параллельном режиме файл делится на куски по границам строк, и куски читаются на разных ядрах
+     * (порядок строк сохраняется, если не использовать <code>unordered()</code>/<code>forEach</code>)<br>
+     * Поток нужно закрыть (<code>try-with-resources</code>), ошибки во время чтения выбрасываются как {@link UncheckedIOException}
+     * @param Path Путь до файла
+     * @param Charset Кодировка файла
+     * @param Parallel Читать параллельно? (только для кодировок, где <code>\n</code> - один байт, например UTF-8)
+     * @return Поток строк файла (без символов конца строки)
+     * @throws FileException Если файл не найден, или не получилось открыть файл
+     */
+    public static Stream<String> ReadLines(String Path, Charset Charset, boolean Parallel) throws FileException {
         try {
-            Path file = Paths.get(Path);
-            if(Files.exists(file)){
-                Files.writeString(file, Content, StandardCharsets.UTF_8);
-                return Content;
-            }else{
-                throw new FileNotFoundException(FILE_NOT_FOUND_MESSAGE);
-            }
+            FileChannel Channel = FileChannel.open(Paths.get(Path), StandardOpenOption.READ);
+            LINES.Splitter Splitter = new LINES.Splitter(Channel, 0, Channel.size(), Charset);
+            return StreamSupport.stream(Splitter, Parallel).onClose(() -> {
+                try {
+                    Channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (NoSuchFileException e) {
+            throw new FileException("Не получилось прочитать файл [" + Path + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
         } catch (Exception e) {
-            throw new FileException("Не получилось записать данные в файл [" + Path + "]!", e);
+            throw new FileException("Не получилось прочитать файл [" + Path + "]!", e);
         }
     }
 
     /**
-     * Создаёт файл (пустой) по указанному пути
-     * @param Path Путь, где создать файл с названием файла и расширением
-     * @return Путь до файла
-     * @throws FileException Если файл уже существует, или не получилось создать файл
+     * Читает указанный файл построчно и передаёт строки в Action, без создания строки на каждую линию<br>
+     * Переданная строка переиспользуется, её нельзя хранить после вызова Action (нужно <code>toString()</code>)
+     * @param Path Путь до файла
+     * @param Charset Кодировка файла
+     * @param Action Что сделать с каждой строкой
+     * @throws FileException Если файл не найден, или не получилось прочитать файл
      */
-    public static String CreateFile(String Path) throws FileException{
-        try {
-            File file = new File(Path);
-
-            if (file.createNewFile()){
-                return Path;
-            } else{
-                throw new FileException("Создаваемый файл уже существует!");
+    public static void ForEachLine(String Path, Charset Charset, Consumer<CharSequence> Action) throws FileException {
+        try (FileChannel Channel = FileChannel.open(Paths.get(Path), StandardOpenOption.READ)) {
+            LINES Reader = new LINES(Channel, Charset);
+            StringBuilder Line = new StringBuilder();
+            while (Reader.Next(Line)) {
+                Action.accept(Line);
             }
+        } catch (NoSuchFileException e) {
+            throw new FileException("Не получилось прочитать файл [" + Path + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
         } catch (Exception e) {
-            throw new FileException("Произошла ошибка при создании файла [" + Path + "]!", e);
+            throw new FileException("Не получилось прочитать файл [" + Path + "]!", e);
         }
     }
 
     /**
-     * Создаёт файл (с указанными данными) по указанному пути
-     * @param Path Путь, где создать файл с названием файла и расширением
-     * @param Content Начальные данные для файла
-     * @return Путь до файла
-     * @throws FileException Если файл уже существует, или не получилось создать файл, или не получилось записать данные
+     * Построчное чтение из канала: байты читаются кусками в один буфер и декодируются в один переиспользуемый {@link CharBuffer}<br>
+     * Концы строк: <code>\n</code>, <code>\r\n</code>, <code>\r</code>
      */
-    public static String CreateFile(String Path, String Content) throws FileException {
-        String File = CreateFile(Path);
-        return WriteFile(File, Content);
+    static final class LINES{
+        private static final int BUFFER = 16 * 1024;
+
+        private final ReadableByteChannel Channel;
+        private final CharsetDecoder Decoder;
+        private final ByteBuffer Bytes = ByteBuffer.allocate(BUFFER);
+        private final CharBuffer Chars = CharBuffer.allocate(BUFFER);
+        private boolean EndOfInput = false;
+        private boolean Finished = false;
+        private boolean SkipLF = false;
+
+        LINES(ReadableByteChannel Channel, Charset Charset){
+            this.Channel = Channel;
+            this.Decoder = Charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            Bytes.flip();
+            Chars.flip();
+        }
+
+        /**
+         * Читает следующую строку
+         * @param Line Куда записать строку (очищается)
+         * @return "Строка прочитана?" (<code>false</code> - конец файла)
+         * @throws IOException Если не получилось прочитать данные
+         */
+        boolean Next(StringBuilder Line) throws IOException {
+            Line.setLength(0);
+            boolean Any = false;
+            while (true) {
+                while (Chars.hasRemaining()) {
+                    char C = Chars.get();
+                    if (SkipLF) {
+                        SkipLF = false;
+                        if (C == '\n') continue;
+                    }
+                    if (C == '\n') return true;
+                    if (C == '\r') {
+                        SkipLF = true;
+                        return true;
+                    }
+                    Line.append(C);
+                    Any = true;
+                }
+                if (!Fill()) return Any;
+            }
+        }
+
+        private boolean Fill() throws IOException {
+            if (Finished) return false;
+            Chars.clear();
+            while (Chars.position() == 0 && !Finished) {
+                if (!EndOfInput) {
+                    Bytes.compact();
+                    if (Channel.read(Bytes) < 0) EndOfInput = true;
+                    Bytes.flip();
+                }
+                CoderResult Result = Decoder.decode(Bytes, Chars, EndOfInput);
+                if (EndOfInput && Result.isUnderflow()) {
+                    Decoder.flush(Chars);
+                    Finished = true;
+                }
+            }
+            Chars.flip();
+            return Chars.hasRemaining();
+        }
+
+        /**
+         * Канал, который читает только часть файла (позиционными чтениями, без общего указателя)
+         */
+        static final class Range implements ReadableByteChannel{
+            private final FileChannel Channel;
+            private long Position;
+            private final long End;
+
+            Range(FileChannel Channel, long Start, long End){
+                this.Channel = Channel;
+                this.Position = Start;
+                this.End = End;
+            }
+
+            @Override
+            public int read(ByteBuffer Buffer) throws IOException {
+                if (Position >= End) return -1;
+                int Limit = Buffer.limit();
+                if (End - Position < Buffer.remaining()) Buffer.limit(Buffer.position() + (int) (End - Position));
+                try {
+                    int Read = Channel.read(Buffer, Position);
+                    if (Read > 0) Position += Read;
+                    return Read;
+                } finally {
+                    Buffer.limit(Limit);
+                }
+            }
+
+            @Override
+            public boolean isOpen(){ return Channel.isOpen(); }
+
+            @Override
+            public void close(){}
+        }
+
+        /**
+         * Ленивый последовательный поток строк из InputStream (закрытие потока закрывает IS)
+         * @param IS Откуда читать
+         * @param Charset Кодировка данных
+         * @return Поток строк (без символов конца строки), ошибки чтения выбрасываются как {@link UncheckedIOException}
+         */
+        static Stream<String> Stream(InputStream IS, Charset Charset){
+            LINES Reader = new LINES(Channels.newChannel(IS), Charset);
+            StringBuilder Line = new StringBuilder();
+            Spliterator<String> Lines = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super String> Action){
+                    try {
+                        if (!Reader.Next(Line)) return false;
+                        Action.accept(Line.toString());
+                        return true;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            return StreamSupport.stream(Lines, false).onClose(() -> {
+                try {
+                    IS.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        /**
+         * Делит файл на куски по границам строк для параллельного чтения
+         */
+        static final class Splitter implements Spliterator<String>{
+            private static final long MIN_SPLIT = 1024 * 1024;
+
+            private final FileChannel Channel;
+            private final Charset Charset;
+            private final boolean Splittable;
+            private long Start;
+            private final long End;
+            private LINES Reader;
+            private final StringBuilder Line = new StringBuilder();
+
+            Splitter(FileChannel Channel, long Start, long End, Charset Charset){
+                this.Channel = Channel;
+                this.Start = Start;
+                this.End = End;
+                this.Charset = Charset;
+                this.Splittable = "\n".getBytes(Charset).length == 1;
+            }
+
+            @Override
+            public boolean tryAdvance(Consumer<? super String> Action){
+                try {
+                    if (Reader == null) Reader = new LINES(new Range(Channel, Start, End), Charset);
+                    if (!Reader.Next(Line)) return false;
+                    Action.accept(Line.toString());
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public Spliterator<String> trySplit(){
+                if (!Splittable || Reader != null || End - Start < MIN_SPLIT * 2) return null;
+                try {
+                    long Boundary = NextLineStart(Start + (End - Start) / 2);
+                    if (Boundary <= Start || Boundary >= End) return null;
+                    Splitter Prefix = new Splitter(Channel, Start, Boundary, Charset);
+                    Start = Boundary;
+                    return Prefix;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            /**
+             * Ищет начало следующей строки после указанной позиции
+             */
+            private long NextLineStart(long Position) throws IOException {
+                ByteBuffer Buffer = ByteBuffer.allocate(4096);
+                while (Position < End) {
+                    Buffer.clear();
+                    int Read = Channel.read(Buffer, Position);
+                    if (Read <= 0) return End;
+                    for (int i = 0; i < Read; i++) {
+                        if (Buffer.get(i) == '\n') return Position + i + 1;
+                    }
+                    Position += Read;
+                }
+                return End;
+            }
+
+            @Override
+            public long estimateSize(){ return (End - Start) / 64; }
+
+            @Override
+            public int characteristics(){ return ORDERED | NONNULL | IMMUTABLE; }
+        }
     }
 
     /**
-     * Удаляет указанный файл
+     * Размер файла (в байтах), начиная с которого {@link #ReadFileBuffer(String)} отображает файл в память, а не читает его
+     */
+    public static final int MAP_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Максимальный размер одного {@link ByteBuffer} (и одного отображения в память) - 2 ГБ<br>
+     * Файлы больше можно читать частями через {@link #ReadFileRange(String, long, long)} или {@link #ForEachFileWindow(String, long, Consumer)}
+     */
+    public static final long BUFFER_LIMIT = Integer.MAX_VALUE;
+
+    /**
+     * Читает данные из указанного файла в виде байтов
      * @param Path Путь до файла
-     * @throws FileException Если файл не найден, или не получилось удалить указанный файл
+     * @return Данные внутри файла<br>(в виде <code>byte[]</code>)
+     * @throws FileException Если файл не найден, или не получилось прочитать данные из файла
      */
-    public static void DeleteFile(String Path) throws FileException {
+    public static byte[] ReadFileBytes(String Path) throws FileException {
+        long Start = METRICS.Start();
         try {
-            Path p = Paths.get(Path);
-            if(Files.exists(p)){
-                Files.delete(p);
-            }else{
-                throw new FileException(FILE_NOT_FOUND_MESSAGE);
-            }
+            byte[] Result = Files.readAllBytes(Paths.get(Path));
+            METRICS.Done(METRICS.OPERATION.READ_FILE, Start, Result.length, 0);
+            return Result;
+        } catch (NoSuchFileException e) {
+            METRICS.Fail(METRICS.OPERATION.READ_FILE, Start);
+            throw new FileException("Не получилось прочитать файл в виде байтов [" + Path + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
         } catch (Exception e) {
-            throw new FileException("Произошла ошибка при удалении файла [" + Path + "]!", e);
+            METRICS.Fail(METRICS.OPERATION.READ_FILE, Start);
+            throw new FileException("Не получилось прочитать файл в виде байтов [" + Path + "]!", e);
         }
     }
 
     /**
-     * Создаёт папку (или папки) по указанному пути
-     * @param Path Путь содержащий в себе новые папки для создания
-     * @return Путь до последней папки
-     * @throws DirectoryException Если не получилось создать папку-папки
+     * Читает данные из указанного файла в виде {@link ByteBuffer}<br>
+     * Большие файлы (от {@link #MAP_THRESHOLD}) отображаются в память ({@link MappedByteBuffer}, только для чтения) и не попадают в heap,
+     * маленькие читаются в heap буфер из {@link BUFFERS}, который можно вернуть через {@link BUFFERS#Release(ByteBuffer)}<br>
+     * Файл должен быть не больше {@link #BUFFER_LIMIT} (2 ГБ)
+     * @param Path Путь до файла
+     * @return Данные внутри файла
+     * @throws FileException Если файл не найден, или файл больше 2 ГБ, или не получилось прочитать данные из файла
      */
-    public static String CreateFolder(String Path) throws DirectoryException {
-        try{
-            Files.createDirectories(Paths.get(Path));
-            return Path;
+    public static ByteBuffer ReadFileBuffer(String Path) throws FileException {
+        long Start = METRICS.Start();
+        try (FileChannel Channel = FileChannel.open(Paths.get(Path), StandardOpenOption.READ)) {
+            long Size = Channel.size();
+            ByteBuffer Result = ReadRange(Channel, 0, Size);
+            METRICS.Done(METRICS.OPERATION.READ_FILE, Start, Result.remaining(), 0);
+            return Result;
+        } catch (NoSuchFileException e) {
+            METRICS.Fail(METRICS.OPERATION.READ_FILE, Start);
+            throw new FileException("Не получилось прочитать файл в виде байтов [" + Path + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
         } catch (Exception e) {
-            throw new DirectoryException("Произошла ошибка при создании папки-папок по пути [" + Path + "]!", e);
+            METRICS.Fail(METRICS.OPERATION.READ_FILE, Start);
+            throw new FileException("Не получилось прочитать файл в виде байтов [" + Path + "]!", e);
         }
     }
 
     /**
-     * Сжимает файл в формате .gz, и удаляет старый файл
+     * Читает часть указанного файла в виде {@link ByteBuffer}, так же как {@link #ReadFileBuffer(String)}<br>
+     * Смещение может быть любым, но длина части - не больше {@link #BUFFER_LIMIT} (2 ГБ)
      * @param Path Путь до файла
-     * @param NewPath Путь до файла, но файл в формате .gz (в каком месте создать новый файл)
-     * @throws FileException Если файл не найден, или не получилось сжать файл, или не получилось удалить старый файл
+     * @param Offset С какого байта читать
+     * @param Length Сколько байтов читать (если файл короче, то меньше)
+     * @return Данные внутри файла
+     * @throws FileException Если файл не найден, или часть больше 2 ГБ, или не получилось прочитать данные из файла
      */
-    public static void CompressFile(String Path, String NewPath) throws FileException {
-        try{
-            if(HasFile(Path)) {
-                try (FileInputStream IN = new FileInputStream(Path)) {
-                    GZIPOutputStream OUT = new GZIPOutputStream(new FileOutputStream(NewPath));
-
-                    byte[] Buf = new byte[1024];
-                    int L;
-                    while ((L = IN.read(Buf)) != -1) {
-                        OUT.write(Buf, 0, L);
-                    }
-                    OUT.finish();
-                }
-                Files.delete(Paths.get(Path));
-            } else {
-                throw new FileNotFoundException(FILE_NOT_FOUND_MESSAGE);
+    public static ByteBuffer ReadFileRange(String Path, long Offset, long Length) throws FileException {
+        try (FileChannel Channel = FileChannel.open(Paths.get(Path), StandardOpenOption.READ)) {
+            long Size = Channel.size();
+            if (Offset < 0 || Length < 0) {
+                throw new IllegalArgumentException("Отрицательное смещение или длина!");
             }
+            long Start = Math.min(Offset, Size);
+            return ReadRange(Channel, Start, Math.min(Length, Size - Start));
+        } catch (NoSuchFileException e) {
+            throw new FileException("Не получилось прочитать часть файла [" + Path + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
         } catch (Exception e) {
-            throw new FileException("Произошла ошибка во время сжатия файла [" + Path + "]!", e);
+            throw new FileException("Не получилось прочитать часть файла [" + Path + "]!", e);
         }
     }
 
     /**
-     * Получает время последней модификации файла
+     * Обходит указанный файл окнами, каждое окно отображается в память ({@link MappedByteBuffer}, только для чтения)<br>
+     * Подходит для файлов любого размера (в том числе больше 2 ГБ), окно нельзя использовать после возврата из Action
      * @param Path Путь до файла
-     * @return Время последней модификации файла в формате long
-     * @throws FileException Если файл не найден, или не получилось получить время с последней модификации файла
+     * @param Window Размер окна в байтах (не больше {@link #BUFFER_LIMIT})
+     * @param Action Что сделать с каждым окном (по порядку)
+     * @return Размер файла
+     * @throws FileException Если файл не найден, или не получилось прочитать данные из файла
      */
-    public static long GetLastModificationDate(String Path) throws FileException {
-        try{
-            Path file = Paths.get(Path);
-            if (Files.exists(file)) {
-                try {
-                    FileTime LMT = Files.getLastModifiedTime(file);
-                    return LMT.to(TimeUnit.MILLISECONDS);
-                } catch (Exception e) {
-                    throw new FileException("Произошла ошибка при получении времени!", e);
-                }
-            }else{
-                throw new FileNotFoundException(FILE_NOT_FOUND_MESSAGE);
+    public static long ForEachFileWindow(String Path, long Window, Consumer<ByteBuffer> Action) throws FileException {
+        try (FileChannel Channel = FileChannel.open(Paths.get(Path), StandardOpenOption.READ)) {
+            long Size = Channel.size();
+            long Step = Math.max(1, Math.min(Window, BUFFER_LIMIT));
+            for (long Position = 0; Position < Size; Position += Step) {
+                Action.accept(Channel.map(FileChannel.MapMode.READ_ONLY, Position, Math.min(Step, Size - Position)));
             }
+            return Size;
+        } catch (NoSuchFileException e) {
+            throw new FileException("Не получилось прочитать файл по частям [" + Path + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
         } catch (Exception e) {
-            throw new FileException("Не получилось получить время с последней модификации файла [" + Path + "]!", e);
+            throw new FileException("Не получилось прочитать файл по частям [" + Path + "]!", e);
         }
     }
 
-    /**
-     * Получает массив всех файлов внутри указанной папки
-     * @param Path Путь до папки
-     * @param ExtraFolders Так же получить все файлы внутри под папок?
-     * @return Возвращает массив путей до файлов
-     * @throws FileException Если папка не найдена, или указан файл вместо папки, или не получилось получить все файлы внутри папки
-     */
-    public static List<String> GetAllFilesInFolder(String Path, boolean ExtraFolders) throws FileException {
-        try {
-            Path file;
-
-            URL url = CL.getResource(Path);
-            if (url == null) {
-                file = Paths.get(Path);
-
-                if (!Files.exists(file)) {
-                    throw new DirectoryNotFoundException(FOLDER_NOT_FOUND_MESSAGE);
-                }
-            }else{
-                file = Paths.get(url.toURI());
-            }
-
-            if(Files.isDirectory(file)){
-                try (Stream<java.nio.file.Path> stream = Files.walk(file, ExtraFolders ? Integer.MAX_VALUE : 1)) {
-                    return stream
-                            .filter(Files::isRegularFile)
-                            .map(java.nio.file.Path::toString)
-                            .collect(Collectors.toList());
-                } catch (Exception e) {
-                    throw new RuntimeException("Проблема с получением всех файлов в папке", e);
-                }
-            }else{
-                throw new NotDirectoryException("Путь указывает на файл, а не на папку!");
-            }
-        }catch (Exception e){
-            throw new FileException("Не получилось получить все файлы из папки [" + Path +"]", e);
+    private static ByteBuffer ReadRange(FileChannel Channel, long Offset, long Length) throws IOException {
+        if (Length > BUFFER_LIMIT) {
+            throw new IOException("Нельзя прочитать " + Length + " байтов в один буфер (максимум " + BUFFER_LIMIT + ")! Используйте ReadFileRange или ForEachFileWindow");
+        }
+        if (Length >= MAP_THRESHOLD) {
+            /* Отображение живёт дольше канала, закрывать канал можно сразу */
+            return Channel.map(FileChannel.MapMode.READ_ONLY, Offset, Length);
+        }
+        ByteBuffer Result = BUFFERS.Take((int) Length);
+        while (Result.hasRemaining()) {
+            if (Channel.read(Result, Offset + Result.position()) < 0) break;
         }
+        Result.flip();
+        return Result;
     }
 
     /**
-     * Под класс {@link ExplorerAction}, содержащий в себе работу с путями к файлам<br>
-     * Добавление и чтение файлов из путей, исправление путей
+     * Передаёт данные из указанного файла в канал (файл, сокет и т.д) без копирования через heap ({@link FileChannel#transferTo})
+     * @param Path Путь до файла
+     * @param Target Канал, куда записать данные
+     * @return Количество переданных байтов
+     * @throws FileException Если файл не найден, или не получилось передать данные
      */
-    public static class PATH{
-        /**
-         * Получает название файла по указанному пути
-         * @param Path Путь до файла
-         * @return Название файла с расширением
-         * @see #GetClearFileName(String)
-         */
-        public static String GetFileName(String Path){
-            return Paths.get(Path).getFileName().toString();
-        }
-
-        /**
-         * Получает только название файла по указанному пути
-         * @param Path Путь до файла
-         * @return Название файла без расширения
-         * @throws PathException Если путь не содержит расширение
-         * @see #GetFileName(String) 
-         * @see #GetFileExtension(String) 
-         */
-        public static String GetClearFileName(String Path) throws PathException {
-            try{
-                String FileName = GetFileName(Path);
-                return FileName.substring(0, FileName.length() - GetFileExtension(Path).length() - 1);
-            } catch (Exception e) {
-                throw new PathException("Не получилось получить чистое название файла [" + Path + "]!", e);
-            }
-        }
+    public static long TransferFile(String Path, WritableByteChannel Target) throws FileException {
+        return TransferFile(Path, 0, Long.MAX_VALUE, Target);
+    }
 
-        /**
-         * Получает расширение файла по указанному пути
-         * @param Path Путь до файла
-         * @return Расширение файла (без точки)
-         * @throws PathException Если путь не содержит расширение
-         */
-        public static String GetFileExtension(String Path) throws PathException {
-            int LastDotIndex = Path.lastIndexOf('.');
-            if(LastDotIndex != -1 && LastDotIndex < Path.length() - 1){
-                return Path.substring(LastDotIndex + 1);
-            }else{
-                throw new PathException("Не получилось получить расширение файла [" + Path + "]! Указанный путь не содержит расширение!");
+    /**
+     * Передаёт часть указанного файла в канал (файл, сокет и т.д) без копирования через heap ({@link FileChannel#transferTo})
+     * @param Path Путь до файла
+     * @param Offset С какого байта передавать
+     * @param Length Сколько байтов передавать (если файл короче, то меньше)
+     * @param Target Канал, куда записать данные
+     * @return Количество переданных байтов
+     * @throws FileException Если файл не найден, или не получилось передать данные
+     */
+    public static long TransferFile(String Path, long Offset, long Length, WritableByteChannel Target) throws FileException {
+        try (FileChannel Channel = FileChannel.open(Paths.get(Path), StandardOpenOption.READ)) {
+            long End = Math.min(Channel.size(), Offset + Math.min(Length, Long.MAX_VALUE - Offset));
+            long Position = Offset;
+            while (Position < End) {
+                long Sent = Channel.transferTo(Position, End - Position, Target);
+                if (Sent <= 0) break;
+                Position += Sent;
             }
+            return Math.max(0, Position - Offset);
+        } catch (NoSuchFileException e) {
+            throw new FileException("Не получилось передать файл [" + Path + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
+        } catch (Exception e) {
+            throw new FileException("Не получилось передать файл [" + Path + "]!", e);
         }
+    }
 
+    /**
+     * Пул heap буферов для чтения маленьких файлов ({@link #ReadFileBuffer(String)}, {@link #ReadFileRange(String, long, long)})<br>
+     * Буфер можно вернуть в пул через {@link #Release(ByteBuffer)}, если он больше не нужен (возвращать не обязательно)
+     */
+    public static final class BUFFERS{
         /**
-         * Исправляет ошибки в пути файла, заменяет <code>\</code> на <code>/</code>,
-         * удаляет <code>/</code> из начала и конца, удаляет пробелы из начала и конца,
-         * заменяет все неподходящие символы на <code>_</code>
-         * @param Path Путь
-         * @return Исправленный путь
+         * Размер буферов в пуле, буферы больше не хранятся
          */
-        public static String FixPath(String Path){
-            if(Path == null || Path.isEmpty()) return "";
+        public static final int SIZE = 64 * 1024;
+        private static final int MAX_POOLED = 64;
+        private static final ConcurrentLinkedQueue<byte[]> Pool = new ConcurrentLinkedQueue<>();
 
-            String Result = Path;
-            boolean HasDisk = Result.charAt(1) == ':';
-            /* Убираем все \ (не только одиночные) и заменяем их на / */
-            Result = Result.replaceAll("[/\\\\]+", "/");
-            /* Убираем все / из начала и конца */
-            Result = Result.replaceAll("^[/\\\\]+|[/\\\\]+$", "");
-            /* Убираем пробелы из начала и конца */
-            Result = Result.trim();
-            /* Убираем все неподходящие символы для пути */
-            Result  = Result.replaceAll("[<*>?'\":|]","_");
+        private BUFFERS(){}
 
-            /* Заменить _ на : если в начале пути указан диск */
-            if(HasDisk){
-                Result = Result.charAt(0) + ":" + Result.substring(2);
+        static ByteBuffer Take(int Length){
+            if (Length <= SIZE) {
+                byte[] Array = Pool.poll();
+                if (Array == null) Array = new byte[SIZE];
+                return ByteBuffer.wrap(Array, 0, Length).slice();
             }
-            return Result;
+            return ByteBuffer.allocate(Length);
         }
 
         /**
-         * Удаляет из пути, путь до папки с ресурсами игры {@linkplain JAR#Prefix}
-         * @param Path Путь до файла
-         * @return Путь до файла без папки с ресурсами игры
+         * Возвращает буфер в пул, после этого буфер нельзя использовать
+         * @param Buffer Буфер, полученный из {@link #ReadFileBuffer(String)} или {@link #ReadFileRange(String, long, long)}
          */
-        public static String ShortResourcePath(String Path){
-            String Result = FixPath(Path);
-            /* Убрать префикс Resource файла */
-            if(Result.startsWith(JAR.Prefix)){
-                Result = Result.substring(JAR.Prefix.length());
+        public static void Release(ByteBuffer Buffer){
+            if (Buffer == null || !Buffer.hasArray()) return;
+            byte[] Array = Buffer.array();
+            if (Array.length == SIZE && Pool.size() < MAX_POOLED) {
+                Pool.offer(Array);
             }
-            return Result;
         }
     }
 
     /**
-     * Под класс {@link ExplorerAction}, содержащий в себе работу с Jar файлами<br>
-     * Позволяет читать ресурсы прямиком внутри игры <code>assets/</code> и т.д
-     */
+     * Записывает (заменяет) данные в указанный файл
+     * @param Path Путь до файла
+     * @param Content Записываемые данные
+     * @return Записываемые данные
+     * @throws FileException Если файл не найден, или если не получилось записать данные в файл
+     */
+    public static String WriteFile(String Path, String Content) throws FileException{
+        WriteFile(Path, ByteBuffer.wrap(Content.getBytes(StandardCharsets.UTF_8)), DURABILITY.NONE);
+        return Content;
+    }
+
+    /**
+     * Записывает (заменяет) данные в указанный файл
+     * @param Path Путь до файла
+     * @param Content Записываемые данные
+     * @throws FileException Если файл не найден, или если не получилось записать данные в файл
+     */
+    public static void WriteFile(String Path, byte[] Content) throws FileException { WriteFile(Path, ByteBuffer.wrap(Content), DURABILITY.NONE); }
+
+    /**
+     * Записывает (заменяет) данные в указанный файл, одним открытием {@link FileChannel}
+     * @param Path Путь до файла
+     * @param Content Записываемые данные (от position до limit)
+     * @param Durability Ждать ли, пока данные попадут на диск
+     * @throws FileException Если файл не найден, или если не получилось записать данные в файл
+     */
+    public static void WriteFile(String Path, ByteBuffer Content, DURABILITY Durability) throws FileException {
+        /* Без CREATE: если файла нет, open выбросит NoSuchFileException, отдельный Files.exists не нужен */
+        long Start = METRICS.Start();
+        int Size = Content.remaining();
+        try (FileChannel Channel = FileChannel.open(Paths.get(Path), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            WriteAll(Channel, Content);
+            Durability.Force(Channel);
+            METRICS.Done(METRICS.OPERATION.WRITE_FILE, Start, 0, Size);
+        } catch (NoSuchFileException e) {
+            METRICS.Fail(METRICS.OPERATION.WRITE_FILE, Start);
+            throw new FileException("Не получилось записать данные в файл [" + Path + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
+        } catch (Exception e) {
+            METRICS.Fail(METRICS.OPERATION.WRITE_FILE, Start);
+            throw new FileException("Не получилось записать данные в файл [" + Path + "]!", e);
+        }
+    }
+
+    /**
+     * Атомарно заменяет данные в указанном файле (файл создаётся, если его нет)<br>
+     * Данные пишутся во временный файл рядом, и он переименовывается в нужный, поэтому при сбое останется либо старый, либо новый файл целиком
+     * @param Path Путь до файла
+     * @param Content Записываемые данные (от position до limit)
+     * @param Durability Ждать ли, пока данные попадут на диск ({@link DURABILITY#ALL} так же сохраняет на диск саму папку)
+     * @throws FileException Если не получилось записать данные в файл
+     */
+    public static void WriteFileAtomic(String Path, ByteBuffer Content, DURABILITY Durability) throws FileException {
+        Path file = Paths.get(Path).toAbsolutePath();
+        Path Temp = null;
+        try {
+            /* Уникальное имя на уровне файловой системы: другой процесс не получит тот же временный файл */
+            Temp = Files.createTempFile(file.getParent(), "." + file.getFileName() + ".", ".tmp");
+            try (FileChannel Channel = FileChannel.open(Temp, StandardOpenOption.WRITE)) {
+                WriteAll(Channel, Content);
+                Durability.Force(Channel);
+            }
+            Files.move(Temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (Durability == DURABILITY.ALL) {
+                /* Переименование хранится в папке, поэтому сохраняем и её (на Windows папку открыть нельзя - пропускаем) */
+                try (FileChannel Folder = FileChannel.open(file.getParent(), StandardOpenOption.READ)) {
+                    Folder.force(true);
+                } catch (IOException e) {
+                    /* Не поддерживается этой системой */
+                }
+            }
+        } catch (Exception e) {
+            try {
+                if (Temp != null) Files.deleteIfExists(Temp);
+            } catch (IOException ignored) {
+                /* Временный файл остался, ничего страшного */
+            }
+            throw new FileException("Не получилось атомарно записать данные в файл [" + Path + "]!", e);
+        }
+    }
+
+    /**
+     * Атомарно заменяет данные в указанном файле (в UTF-8)
+     * @param Path Путь до файла
+     * @param Content Записываемые данные
+     * @param Durability Ждать ли, пока данные попадут на диск
+     * @throws FileException Если не получилось записать данные в файл
+     * @see #WriteFileAtomic(String, ByteBuffer, DURABILITY)
+     */
+    public static void WriteFileAtomic(String Path, String Content, DURABILITY Durability) throws FileException {
+        WriteFileAtomic(Path, ByteBuffer.wrap(Content.getBytes(StandardCharsets.UTF_8)), Durability);
+    }
+
+    /**
+     * Дописывает данные в конец указанного файла (файл создаётся, если его нет)<br>
+     * Канал к файлу остаётся открытым в {@link APPENDER} и переиспользуется следующими вызовами;
+     * если несколько потоков одновременно ждут сохранения на диск, они сохраняются одним <code>force</code> (group commit)
+     * @param Path Путь до файла
+     * @param Content Записываемые данные (от position до limit)
+     * @param Durability Ждать ли, пока данные попадут на диск
+     * @throws FileException Если не получилось записать данные в файл
+     */
+    public static void AppendFile(String Path, ByteBuffer Content, DURABILITY Durability) throws FileException {
+        AppendFile(Path, new ByteBuffer[]{Content}, Durability);
+    }
+
+    /**
+     * Дописывает данные в конец указанного файла (в UTF-8)
+     * @param Path Путь до файла
+     * @param Content Записываемые данные
+     * @param Durability Ждать ли, пока данные попадут на диск
+     * @throws FileException Если не получилось записать данные в файл
+     * @see #AppendFile(String, ByteBuffer, DURABILITY)
+     */
+    public static void AppendFile(String Path, String Content, DURABILITY Durability) throws FileException {
+        AppendFile(Path, ByteBuffer.wrap(Content.getBytes(StandardCharsets.UTF_8)), Durability);
+    }
+
+    /**
+     * Дописывает пачку записей в конец указанного файла одной записью и (если нужно) одним сохранением на диск
+     * @param Path Путь до файла
+     * @param Records Записываемые данные, по порядку
+     * @param Durability Ждать ли, пока данные попадут на диск
+     * @throws FileException Если не получилось записать данные в файл
+     */
+    public static void AppendFile(String Path, ByteBuffer[] Records, DURABILITY Durability) throws FileException {
+        try {
+            APPENDER.Get(Paths.get(Path)).Append(Records, Durability);
+        } catch (Exception e) {
+            throw new FileException("Не получилось дописать данные в файл [" + Path + "]!", e);
+        }
+    }
+
+    private static void WriteAll(FileChannel Channel, ByteBuffer Content) throws IOException {
+        while (Content.hasRemaining()) Channel.write(Content);
+    }
+
+    /**
+     * Насколько надёжно сохранять записанные данные
+     */
+    public enum DURABILITY{
+        /** Не ждать, данные сохранит система когда захочет */
+        NONE,
+        /** Ждать, пока на диск попадут данные (<code>force(false)</code>) */
+        DATA,
+        /** Ждать, пока на диск попадут данные и метаданные файла (<code>force(true)</code>) */
+        ALL;
+
+        void Force(FileChannel Channel) throws IOException {
+            if (this != NONE) Channel.force(this == ALL);
+        }
+    }
+
+    /**
+     * Открытые каналы для дописывания в файлы ({@link #AppendFile(String, ByteBuffer, DURABILITY)})<br>
+     * Хранится не больше {@value #MAX_OPEN} каналов, самый давно не используемый закрывается
+     */
+    public static final class APPENDER{
+        /** Максимальное количество открытых каналов */
+        public static final int MAX_OPEN = 32;
+        private static final Map<Path, APPENDER> Open = new LinkedHashMap<>(16, 0.75f, true);
+
+        private final FileChannel Channel;
+        private final Object SyncLock = new Object();
+        /** Номер последнего дописывания и номера последних, сохранённых на диск с {@link DURABILITY#DATA} и с {@link DURABILITY#ALL} */
+        private long Appended = 0;
+        private long SyncedData = 0;
+        private long SyncedAll = 0;
+        private int Users = 0;
+        private boolean Closed = false;
+
+        private APPENDER(Path file) throws IOException {
+            this.Channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        static APPENDER Get(Path file) throws IOException {
+            Path Key = file.toAbsolutePath().normalize();
+            synchronized (Open) {
+                APPENDER Result = Open.get(Key);
+                if (Result == null) {
+                    Result = new APPENDER(Key);
+                    Open.put(Key, Result);
+                    if (Open.size() > MAX_OPEN) {
+                        Iterator<APPENDER> Oldest = Open.values().iterator();
+                        Oldest.next().Retire();
+                        Oldest.remove();
+                    }
+                }
+                Result.Users++;
+                return Result;
+            }
+        }
+
+        void Append(ByteBuffer[] Records, DURABILITY Durability) throws IOException {
+            try {
+                long Target;
+                synchronized (this) {
+                    for (ByteBuffer Record : Records) {
+                        while (Record.hasRemaining()) Channel.write(Record);
+                    }
+                    Target = ++Appended;
+                }
+                if (Durability != DURABILITY.NONE) {
+                    synchronized (SyncLock) {
+                        /* Пока мы ждали блокировку, кто-то уже мог сохранить и наши данные (для ALL подходит только force с метаданными) */
+                        boolean All = Durability == DURABILITY.ALL;
+                        if ((All ? SyncedAll : SyncedData) < Target) {
+                            long UpTo;
+                            synchronized (this) {
+                                UpTo = Appended;
+                            }
+                            Durability.Force(Channel);
+                            SyncedData = UpTo;
+                            if (All) SyncedAll = UpTo;
+                        }
+                    }
+                }
+            } finally {
+                Release();
+            }
+        }
+
+        private void Release() throws IOException {
+            synchronized (Open) {
+                Users--;
+                if (Closed && Users == 0) Channel.close();
+            }
+        }
+
+        private void Retire() {
+            Closed = true;
+            if (Users == 0) {
+                try {
+                    Channel.close();
+                } catch (IOException e) {
+                    /* Уже закрыт */
+                }
+            }
+        }
+
+        /**
+         * Закрывает открытый канал к файлу (следующий {@link #AppendFile(String, ByteBuffer, DURABILITY)} откроет его заново)
+         * @param Path Путь до файла
+         */
+        public static void Close(String Path){
+            synchronized (Open) {
+                APPENDER Appender = Open.remove(Paths.get(Path).toAbsolutePath().normalize());
+                if (Appender != null) Appender.Retire();
+            }
+        }
+
+        /**
+         * Закрывает все открытые каналы
+         */
+        public static void CloseAll(){
+            synchronized (Open) {
+                for (APPENDER Appender : Open.values()) Appender.Retire();
+                Open.clear();
+            }
+        }
+    }
+
+    /**
+     * Создаёт файл (пустой) по указанному пути
+     * @param Path Путь, где создать файл с названием файла и расширением
+     * @return Путь до файла
+     * @throws FileException Если файл уже существует, или не получилось создать файл
+     */
+    public static String CreateFile(String Path) throws FileException{
+        try {
+            File file = new File(Path);
+
+            if (file.createNewFile()){
+                return Path;
+            } else{
+                throw new FileException("Создаваемый файл уже существует!");
+            }
+        } catch (Exception e) {
+            throw new FileException("Произошла ошибка при создании файла [" + Path + "]!", e);
+        }
+    }
+
+    /**
+     * Создаёт файл (с указанными данными) по указанному пути
+     * @param Path Путь, где создать файл с названием файла и расширением
+     * @param Content Начальные данные для файла
+     * @return Путь до файла
+     * @throws FileException Если файл уже существует, или не получилось создать файл, или не получилось записать данные
+     */
+    public static String CreateFile(String Path, String Content) throws FileException {
+        String File = CreateFile(Path);
+        return WriteFile(File, Content);
+    }
+
+    /**
+     * Удаляет указанный файл
+     * @param Path Путь до файла
+     * @throws FileException Если файл не найден, или не получилось удалить указанный файл
+     */
+    public static void DeleteFile(String Path) throws FileException {
+        try {
+            Path p = Paths.get(Path);
+            if(Files.exists(p)){
+                Files.delete(p);
+            }else{
+                throw new FileException(FILE_NOT_FOUND_MESSAGE);
+            }
+        } catch (Exception e) {
+            throw new FileException("Произошла ошибка при удалении файла [" + Path + "]!", e);
+        }
+    }
+
+    /**
+     * Создаёт папку (или папки) по указанному пути
+     * @param Path Путь содержащий в себе новые папки для создания
+     * @return Путь до последней папки
+     * @throws DirectoryException Если не получилось создать папку-папки
+     */
+    public static String CreateFolder(String Path) throws DirectoryException {
+        try{
+            Files.createDirectories(Paths.get(Path));
+            return Path;
+        } catch (Exception e) {
+            throw new DirectoryException("Произошла ошибка при создании папки-папок по пути [" + Path + "]!", e);
+        }
+    }
+
+    /**
+     * Копирует файл (заменяет, если он уже есть), данные копирует система ({@link FileChannel#transferTo}) без прохода через heap<br>
+     * Папки для нового файла создаются, время модификации копируется
+     * @param Path Путь до файла
+     * @param NewPath Путь до копии файла
+     * @throws FileException Если файл не найден, или не получилось скопировать файл
+     */
+    public static void CopyFile(String Path, String NewPath) throws FileException {
+        try {
+            Path Source = Paths.get(Path);
+            BasicFileAttributes attrs = Files.readAttributes(Source, BasicFileAttributes.class);
+            COPY.Transfer(Source, Paths.get(NewPath), attrs, null);
+        } catch (NoSuchFileException e) {
+            throw new FileException("Не получилось скопировать файл [" + Path + "] в [" + NewPath + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
+        } catch (Exception e) {
+            throw new FileException("Не получилось скопировать файл [" + Path + "] в [" + NewPath + "]!", e);
+        }
+    }
+
+    /**
+     * Копирует папку со всем содержимым (файлы копируются параллельно, см. {@link COPY})
+     * @param Path Путь до папки
+     * @param NewPath Путь до копии папки
+     * @param Options Настройки копирования
+     * @return Отчёт о копировании
+     * @throws DirectoryException Если папка не найдена, или новый путь внутри этой папки, или не получилось скопировать какой-то файл
+     */
+    public static COPY.REPORT CopyFolder(String Path, String NewPath, COPY Options) throws DirectoryException {
+        try {
+            return Options.Run(ResolveFolder(Path), Paths.get(NewPath), false);
+        } catch (Exception e) {
+            throw new DirectoryException("Не получилось скопировать папку [" + Path + "] в [" + NewPath + "]!", e);
+        }
+    }
+
+    /**
+     * Перемещает папку со всем содержимым<br>
+     * На одном диске это одно переименование, иначе папка копируется ({@link #CopyFolder(String, String, COPY)}) и удаляется<br>
+     * Новый путь должен быть свободен (или быть пустой папкой), в существующую папку с файлами перемещать нельзя
+     * @param Path Путь до папки
+     * @param NewPath Новый путь до папки
+     * @param Options Настройки копирования (если придётся копировать)
+     * @return Отчёт о перемещении
+     * @throws DirectoryException Если папка не найдена, или новый путь занят или внутри этой папки, или не получилось переместить папку
+     */
+    public static COPY.REPORT MoveFolder(String Path, String NewPath, COPY Options) throws DirectoryException {
+        try {
+            Path Source = ResolveFolder(Path);
+            Path Target = Paths.get(NewPath);
+            if (Files.isDirectory(Target, LinkOption.NOFOLLOW_LINKS)) {
+                try (Stream<Path> Children = Files.list(Target)) {
+                    if (Children.findAny().isPresent()) throw new DirectoryNotEmptyException(Target.toString());
+                }
+            } else if (Files.exists(Target, LinkOption.NOFOLLOW_LINKS)) {
+                throw new FileAlreadyExistsException(Target.toString());
+            }
+            COPY.CheckOutside(Source, Target);
+            try {
+                if (Target.getParent() != null) Files.createDirectories(Target.getParent());
+                Files.move(Source, Target, StandardCopyOption.ATOMIC_MOVE);
+                return new COPY.REPORT(0, 0, 0, 0);
+            } catch (AtomicMoveNotSupportedException e) {
+                return Options.Run(Source, Target, true);
+            }
+        } catch (Exception e) {
+            throw new DirectoryException("Не получилось переместить папку [" + Path + "] в [" + NewPath + "]!", e);
+        }
+    }
+
+    /**
+     * Настройки копирования папок ({@link #CopyFolder(String, String, COPY)}, {@link #MoveFolder(String, String, COPY)}):
+     * <code>new COPY().Threads(8).SkipUnchanged(true).Progress(...)</code>
+     */
+    public static class COPY{
+        private static final long CHUNK = 8L * 1024 * 1024;
+
+        private int Threads = 4;
+        private boolean SkipUnchanged = true;
+        private PROGRESS Progress = null;
+
+        /**
+         * Сколько файлов копировать одновременно
+         * @param Threads Количество одновременных копирований
+         * @return Эти настройки
+         */
+        public COPY Threads(int Threads){
+            this.Threads = Math.max(Threads, 1);
+            return this;
+        }
+
+        /**
+         * Пропускать файлы, у которых копия уже есть с тем же размером и временем модификации
+         * @param SkipUnchanged Пропускать?
+         * @return Эти настройки
+         */
+        public COPY SkipUnchanged(boolean SkipUnchanged){
+            this.SkipUnchanged = SkipUnchanged;
+            return this;
+        }
+
+        /**
+         * Куда сообщать о ходе копирования
+         * @param Progress Обработчик хода копирования
+         * @return Эти настройки
+         */
+        public COPY Progress(PROGRESS Progress){
+            this.Progress = Progress;
+            return this;
+        }
+
+        /**
+         * Ход копирования, вызывается из разных потоков
+         */
+        @FunctionalInterface
+        public interface PROGRESS{
+            /**
+             * @param FilesDone Сколько файлов обработано (скопировано или пропущено)
+             * @param FilesTotal Сколько всего файлов
+             * @param BytesDone Сколько байтов скопировано
+             * @param BytesTotal Сколько всего байтов
+             * @param BytesPerSecond Средняя скорость копирования
+             */
+            void Update(long FilesDone, long FilesTotal, long BytesDone, long BytesTotal, double BytesPerSecond);
+        }
+
+        /**
+         * Итог копирования
+         */
+        public static final class REPORT{
+            /** Скопировано файлов */
+            public final long Copied;
+            /** Пропущено неизменённых файлов */
+            public final long Skipped;
+            /** Скопировано байтов */
+            public final long Bytes;
+            /** Время копирования в миллисекундах */
+            public final long Millis;
+
+            REPORT(long Copied, long Skipped, long Bytes, long Millis){
+                this.Copied = Copied;
+                this.Skipped = Skipped;
+                this.Bytes = Bytes;
+                this.Millis = Millis;
+            }
+        }
+
+        REPORT Run(Path Source, Path Target, boolean Move) throws Exception {
+            long Start = System.nanoTime();
+            CheckOutside(Source, Target);
+            List<String> Sources = new ArrayList<>();
+            List<BasicFileAttributes> Attrs = new ArrayList<>();
+            List<Path> Folders = new ArrayList<>();
+            Files.walkFileTree(Source, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs){
+                    Folders.add(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs){
+                    Sources.add(file.toString());
+                    Attrs.add(attrs);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            /* Папки создаём только после обхода, чтобы обход не заходил в то, что сам создал */
+            for (Path dir : Folders) Files.createDirectories(Target.resolve(Source.relativize(dir).toString()));
+
+            long BytesTotal = 0;
+            for (BasicFileAttributes attrs : Attrs) BytesTotal += attrs.size();
+            long Total = BytesTotal;
+            LongAdder FilesDone = new LongAdder();
+            LongAdder BytesDone = new LongAdder();
+            LongAdder Skipped = new LongAdder();
+
+            Map<String, BasicFileAttributes> ByPath = new HashMap<>();
+            for (int i = 0; i < Sources.size(); i++) ByPath.put(Sources.get(i), Attrs.get(i));
+
+            /* Свой пул на Threads потоков: файлы ждут в очереди пула, а не на отдельных потоках */
+            ExecutorService Pool = Executors.newFixedThreadPool(Math.min(Threads, Math.max(Sources.size(), 1)), Task -> {
+                Thread Result = new Thread(Task, "ExplorerAction-COPY");
+                Result.setDaemon(true);
+                return Result;
+            });
+            FileException Error = null;
+            try {
+                List<Future<?>> Futures = new ArrayList<>(Sources.size());
+                for (String Path : Sources) {
+                    Futures.add(Pool.submit(() -> {
+                        Path From = Paths.get(Path);
+                        Path To = Target.resolve(Source.relativize(From).toString());
+                        BasicFileAttributes attrs = ByPath.get(Path);
+                        if (SkipUnchanged && Unchanged(attrs, To)) {
+                            Skipped.increment();
+                        } else {
+                            Transfer(From, To, attrs, Bytes -> {
+                                BytesDone.add(Bytes);
+                                Report(FilesDone.sum(), Sources.size(), BytesDone.sum(), Total, Start);
+                            });
+                        }
+                        if (Move) Files.delete(From);
+                        FilesDone.increment();
+                        Report(FilesDone.sum(), Sources.size(), BytesDone.sum(), Total, Start);
+                        return null;
+                    }));
+                }
+                for (Future<?> Future : Futures) {
+                    try {
+                        Future.get();
+                    } catch (ExecutionException e) {
+                        if (Error == null) Error = new FileException("Не получилось скопировать файлы!");
+                        Error.addSuppressed(e.getCause());
+                    }
+                }
+            } finally {
+                Pool.shutdownNow();
+            }
+            if (Error != null) throw Error;
+
+            if (Move) {
+                /* Папки удаляем с самых глубоких */
+                for (int i = Folders.size() - 1; i >= 0; i--) Files.delete(Folders.get(i));
+            }
+            return new REPORT(Sources.size() - Skipped.sum(), Skipped.sum(), BytesDone.sum(), (System.nanoTime() - Start) / 1_000_000);
+        }
+
+        /**
+         * Проверяет, что новый путь не внутри копируемой папки (и не она сама), иначе копирование никогда не закончится
+         * @throws DirectoryException Если новый путь внутри папки
+         */
+        static void CheckOutside(Path Source, Path Target) throws IOException, DirectoryException {
+            Path From = Source.toRealPath();
+            /* Новой папки может ещё не быть: берём реальный путь ближайшей существующей родительской папки */
+            Path To = Target.toAbsolutePath().normalize();
+            Path Existing = To;
+            while (Existing != null && !Files.exists(Existing)) Existing = Existing.getParent();
+            if (Existing != null) To = Existing.toRealPath().resolve(Existing.relativize(To));
+            if (To.startsWith(From)) {
+                throw new DirectoryException("Нельзя скопировать папку [" + Source + "] внутрь самой себя [" + Target + "]!");
+            }
+        }
+
+        private void Report(long FilesDone, long FilesTotal, long BytesDone, long BytesTotal, long Start){
+            if (Progress == null) return;
+            double Seconds = Math.max((System.nanoTime() - Start) / 1e9, 1e-9);
+            Progress.Update(FilesDone, FilesTotal, BytesDone, BytesTotal, BytesDone / Seconds);
+        }
+
+        private static boolean Unchanged(BasicFileAttributes attrs, Path To){
+            try {
+                BasicFileAttributes Old = Files.readAttributes(To, BasicFileAttributes.class);
+                return Old.size() == attrs.size() && Old.lastModifiedTime().toMillis() == attrs.lastModifiedTime().toMillis();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Копирует один файл через {@link FileChannel#transferTo} кусками (чтобы сообщать о ходе копирования)
+         */
+        static void Transfer(Path From, Path To, BasicFileAttributes attrs, LongConsumer Copied) throws IOException {
+            if (To.getParent() != null) Files.createDirectories(To.getParent());
+            try (FileChannel IN = FileChannel.open(From, StandardOpenOption.READ);
+                 FileChannel OUT = FileChannel.open(To, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long Size = IN.size();
+                long Position = 0;
+                while (Position < Size) {
+                    long Sent = IN.transferTo(Position, Math.min(CHUNK, Size - Position), OUT);
+                    if (Sent <= 0) break;
+                    Position += Sent;
+                    if (Copied != null) Copied.accept(Sent);
+                }
+            }
+            Files.setLastModifiedTime(To, attrs.lastModifiedTime());
+        }
+    }
+
+    /**
+     * Сжимает файл в формате .gz, и удаляет старый файл
+     * @param Path Путь до файла
+     * @param NewPath Путь до файла, но файл в формате .gz (в каком месте создать новый файл)
+     * @throws FileException Если файл не найден, или не получилось сжать файл, или не получилось удалить старый файл
+     */
+    public static void CompressFile(String Path, String NewPath) throws FileException {
+        long Start = METRICS.Start();
+        try{
+            if(HasFile(Path)) {
+                long Size = 0, Compressed;
+                try (FileInputStream IN = new FileInputStream(Path); FileOutputStream FILE = new FileOutputStream(NewPath); GZIPOutputStream OUT = new GZIPOutputStream(FILE)) {
+                    byte[] Buf = new byte[1024];
+                    int L;
+                    while ((L = IN.read(Buf)) != -1) {
+                        OUT.write(Buf, 0, L);
+                        Size += L;
+                    }
+                    OUT.finish();
+                    Compressed = FILE.getChannel().position();
+                }
+                Files.delete(Paths.get(Path));
+                METRICS.Done(METRICS.OPERATION.COMPRESS_FILE, Start, Size, Compressed);
+            } else {
+                throw new FileNotFoundException(FILE_NOT_FOUND_MESSAGE);
+            }
+        } catch (Exception e) {
+            METRICS.Fail(METRICS.OPERATION.COMPRESS_FILE, Start);
+            throw new FileException("Произошла ошибка во время сжатия файла [" + Path + "]!", e);
+        }
+    }
+
+    /**
+     * Сжимает файл в формате .gz на нескольких потоках (как pigz), и удаляет старый файл<br>
+     * Файл делится на блоки, каждый блок сжимается отдельно (словарь - конец прошлого блока), и блоки склеиваются
+     * в один обычный gzip, который читается любым gunzip
+     * @param Path Путь до файла
+     * @param NewPath Путь до файла, но файл в формате .gz (в каком месте создать новый файл)
+     * @param Level Уровень сжатия (от 0 до 9, {@link Deflater#DEFAULT_COMPRESSION} - по умолчанию)
+     * @param BlockSize Размер блока в байтах (например 128 КБ)
+     * @param Threads Количество потоков для сжатия
+     * @throws FileException Если файл не найден, или не получилось сжать файл, или не получилось удалить старый файл
+     */
+    public static void CompressFile(String Path, String NewPath, int Level, int BlockSize, int Threads) throws FileException {
+        long Start = METRICS.Start();
+        try{
+            if(HasFile(Path)) {
+                long Size = 0, Compressed = 0;
+                ExecutorService Pool = Executors.newFixedThreadPool(Math.max(Threads, 1));
+                try (FileChannel IN = FileChannel.open(Paths.get(Path), StandardOpenOption.READ);
+                     FileChannel OUT = FileChannel.open(Paths.get(NewPath), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    PARALLEL_GZIP.Compress(IN, OUT, Level, Math.max(BlockSize, PARALLEL_GZIP.DICTIONARY), Math.max(Threads, 1), Pool);
+                    Size = IN.size();
+                    Compressed = OUT.size();
+                } finally {
+                    Pool.shutdownNow();
+                }
+                Files.delete(Paths.get(Path));
+                METRICS.Done(METRICS.OPERATION.COMPRESS_FILE, Start, Size, Compressed);
+            } else {
+                throw new FileNotFoundException(FILE_NOT_FOUND_MESSAGE);
+            }
+        } catch (Exception e) {
+            METRICS.Fail(METRICS.OPERATION.COMPRESS_FILE, Start);
+            throw new FileException("Произошла ошибка во время сжатия файла [" + Path + "]!", e);
+        }
+    }
+
+    /**
+     * Сжимает файл в формате .gz на всех ядрах, блоками по 128 КБ, и удаляет старый файл
+     * @param Path Путь до файла
+     * @param NewPath Путь до файла, но файл в формате .gz (в каком месте создать новый файл)
+     * @param Level Уровень сжатия (от 0 до 9, {@link Deflater#DEFAULT_COMPRESSION} - по умолчанию)
+     * @throws FileException Если файл не найден, или не получилось сжать файл, или не получилось удалить старый файл
+     * @see #CompressFile(String, String, int, int, int)
+     */
+    public static void CompressFileParallel(String Path, String NewPath, int Level) throws FileException {
+        CompressFile(Path, NewPath, Level, PARALLEL_GZIP.BLOCK, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Параллельное сжатие в gzip: блоки сжимаются независимо (с SYNC_FLUSH, чтобы каждый блок заканчивался на границе байта),
+     * и записываются по порядку в один gzip с общим CRC32
+     */
+    private static final class PARALLEL_GZIP{
+        static final int BLOCK = 128 * 1024;
+        static final int DICTIONARY = 32 * 1024;
+
+        static void Compress(FileChannel IN, FileChannel OUT, int Level, int BlockSize, int Threads, ExecutorService Pool) throws Exception {
+            long Size = IN.size();
+            long Blocks = Math.max(1, (Size + BlockSize - 1) / BlockSize);
+            CRC32 Crc = new CRC32();
+
+            WriteFully(OUT, ByteBuffer.wrap(new byte[]{0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff}));
+
+            /* Не держим в памяти больше, чем 2 блока на поток */
+            ArrayDeque<Future<byte[][]>> InFlight = new ArrayDeque<>();
+            byte[] Previous = null;
+            for (long i = 0; i < Blocks; i++) {
+                int Length = (int) Math.min(BlockSize, Size - i * BlockSize);
+                ByteBuffer Block = ByteBuffer.allocate(Length);
+                long Position = i * BlockSize;
+                while (Block.hasRemaining()) {
+                    int Read = IN.read(Block, Position + Block.position());
+                    if (Read < 0) throw new EOFException("Файл изменился во время сжатия!");
+                }
+                byte[] Data = Block.array();
+                byte[] Dictionary = Previous == null ? null : Arrays.copyOfRange(Previous, Math.max(0, Previous.length - DICTIONARY), Previous.length);
+                boolean Last = i == Blocks - 1;
+                InFlight.add(Pool.submit(() -> new byte[][]{Data, Deflate(Data, Dictionary, Level, Last)}));
+                Previous = Data;
+
+                while (InFlight.size() >= Threads * 2 || (Last && !InFlight.isEmpty())) {
+                    byte[][] Done = InFlight.poll().get();
+                    Crc.update(Done[0]);
+                    WriteFully(OUT, ByteBuffer.wrap(Done[1]));
+                }
+            }
+
+            ByteBuffer Trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            Trailer.putInt((int) Crc.getValue()).putInt((int) Size).flip();
+            WriteFully(OUT, Trailer);
+        }
+
+        private static byte[] Deflate(byte[] Data, byte[] Dictionary, int Level, boolean Last){
+            Deflater Compressor = new Deflater(Level, true);
+            try {
+                if (Dictionary != null) Compressor.setDictionary(Dictionary);
+                Compressor.setInput(Data);
+                ByteArrayOutputStream Result = new ByteArrayOutputStream(Data.length / 2 + 64);
+                byte[] Buf = new byte[Math.max(Data.length / 4, 4096)];
+                if (Last) {
+                    Compressor.finish();
+                    while (!Compressor.finished()) {
+                        Result.write(Buf, 0, Compressor.deflate(Buf));
+                    }
+                } else {
+                    int L;
+                    do {
+                        L = Compressor.deflate(Buf, 0, Buf.length, Deflater.SYNC_FLUSH);
+                        Result.write(Buf, 0, L);
+                    } while (L == Buf.length);
+                }
+                return Result.toByteArray();
+            } finally {
+                Compressor.end();
+            }
+        }
+
+        private static void WriteFully(FileChannel OUT, ByteBuffer Buffer) throws IOException {
+            while (Buffer.hasRemaining()) OUT.write(Buffer);
+        }
+    }
+
+    /**
+     * Получает время последней модификации файла
+     * @param Path Путь до файла
+     * @return Время последней модификации файла в формате long
+     * @throws FileException Если файл не найден, или не получилось получить время с последней модификации файла
+     */
+    public static long GetLastModificationDate(String Path) throws FileException {
+        try{
+            Path file = Paths.get(Path);
+            INDEX Index = INDEX.Find(file);
+            if (Index != null) {
+                BasicFileAttributes attrs = Index.Get(file);
+                if (attrs == null) {
+                    throw new FileNotFoundException(FILE_NOT_FOUND_MESSAGE);
+                }
+                return attrs.lastModifiedTime().to(TimeUnit.MILLISECONDS);
+            }
+            /* Одно обращение к диску вместо Files.exists + Files.getLastModifiedTime */
+            try {
+                FileTime LMT = Files.getLastModifiedTime(file);
+                return LMT.to(TimeUnit.MILLISECONDS);
+            } catch (NoSuchFileException e) {
+                throw new FileNotFoundException(FILE_NOT_FOUND_MESSAGE);
+            } catch (Exception e) {
+                throw new FileException("Произошла ошибка при получении времени!", e);
+            }
+        } catch (Exception e) {
+            throw new FileException("Не получилось получить время с последней модификации файла [" + Path + "]!", e);
+        }
+    }
+
+    /**
+     * Получает атрибуты сразу многих файлов, одно чтение атрибутов на файл<br>
+     * Если файла нет, он остаётся в результате, но без флага {@link METADATA#EXISTS}
+     * @param Paths Пути до файлов
+     * @return Атрибуты файлов, в том же порядке что и Paths
+     * @throws FileException Если не получилось прочитать атрибуты какого-то файла (кроме случая, когда файла нет)
+     */
+    public static METADATA GetMetadata(List<String> Paths) throws FileException {
+        METADATA Result = new METADATA(Paths.size());
+        for (String Path : Paths) {
+            try {
+                Path file = java.nio.file.Paths.get(Path);
+                INDEX Index = INDEX.Find(file);
+                BasicFileAttributes attrs;
+                if (Index != null) {
+                    attrs = Index.Get(file);
+                } else {
+                    try {
+                        attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                    } catch (NoSuchFileException e) {
+                        attrs = null;
+                    }
+                }
+                Result.Add(Path, attrs);
+            } catch (Exception e) {
+                throw new FileException("Не получилось получить атрибуты файла [" + Path + "]!", e);
+            }
+        }
+        return Result.Trim();
+    }
+
+    /**
+     * Получает все файлы внутри указанной папки вместе с их атрибутами, за один обход
+     * @param Path Путь до папки
+     * @param Filter Фильтр файлов (расширения, glob, глубина)
+     * @return Пути и атрибуты файлов
+     * @throws FileException Если папка не найдена, или указан файл вместо папки, или не получилось обойти папку
+     */
+    public static METADATA GetMetadataInFolder(String Path, FILTER Filter) throws FileException {
+        try {
+            Path Folder = ResolveFolder(Path);
+            BiPredicate<Path, BasicFileAttributes> Matcher = Filter.Matcher(Folder);
+            METADATA Result = new METADATA(64);
+            Files.walkFileTree(Folder, EnumSet.noneOf(FileVisitOption.class), Filter.Depth, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs){
+                    if (Matcher.test(file, attrs)) Result.Add(file.toString(), attrs);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return Result.Trim();
+        } catch (Exception e) {
+            throw new FileException("Не получилось получить атрибуты файлов из папки [" + Path + "]!", e);
+        }
+    }
+
+    /**
+     * Атрибуты многих файлов в виде массивов (без объекта на каждый файл)<br>
+     * Файл с номером <code>i</code>: {@link #Paths}[i], {@link #LastModified}[i], {@link #Sizes}[i], флаги через {@link #Has(int, int)}
+     * @see #GetMetadata(List)
+     * @see #GetMetadataInFolder(String, FILTER)
+     */
+    public static final class METADATA{
+        /** Флаг: файл существует */
+        public static final int EXISTS        = 0;
+        /** Флаг: это папка */
+        public static final int DIRECTORY     = 1;
+        /** Флаг: это обычный файл */
+        public static final int REGULAR_FILE  = 2;
+        /** Флаг: это ссылка */
+        public static final int SYMBOLIC_LINK = 3;
+        private static final int FLAGS = 4;
+
+        /** Количество файлов */
+        public int Count = 0;
+        /** Пути до файлов */
+        public String[] Paths;
+        /** Время последней модификации файлов в миллисекундах (0 если файла нет) */
+        public long[] LastModified;
+        /** Размеры файлов в байтах (0 если файла нет) */
+        public long[] Sizes;
+        /** Флаги файлов, по 4 бита на файл */
+        public final BitSet Flags = new BitSet();
+
+        METADATA(int Capacity){
+            Capacity = Math.max(Capacity, 1);
+            Paths = new String[Capacity];
+            LastModified = new long[Capacity];
+            Sizes = new long[Capacity];
+        }
+
+        /**
+         * Проверяет флаг файла
+         * @param Index Номер файла
+         * @param Flag Флаг ({@link #EXISTS}, {@link #DIRECTORY}, {@link #REGULAR_FILE}, {@link #SYMBOLIC_LINK})
+         * @return "У файла есть флаг?"
+         */
+        public boolean Has(int Index, int Flag){ return Flags.get(Index * FLAGS + Flag); }
+
+        void Add(String Path, BasicFileAttributes attrs){
+            if (Count == Paths.length) {
+                int Capacity = Count * 2;
+                Paths = Arrays.copyOf(Paths, Capacity);
+                LastModified = Arrays.copyOf(LastModified, Capacity);
+                Sizes = Arrays.copyOf(Sizes, Capacity);
+            }
+            Paths[Count] = Path;
+            if (attrs != null) {
+                LastModified[Count] = attrs.lastModifiedTime().toMillis();
+                Sizes[Count] = attrs.size();
+                int Base = Count * FLAGS;
+                Flags.set(Base + EXISTS);
+                if (attrs.isDirectory())    Flags.set(Base + DIRECTORY);
+                if (attrs.isRegularFile())  Flags.set(Base + REGULAR_FILE);
+                if (attrs.isSymbolicLink()) Flags.set(Base + SYMBOLIC_LINK);
+            }
+            Count++;
+        }
+
+        METADATA Trim(){
+            if (Count != Paths.length) {
+                Paths = Arrays.copyOf(Paths, Count);
+                LastModified = Arrays.copyOf(LastModified, Count);
+                Sizes = Arrays.copyOf(Sizes, Count);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Определяет формат файла по его первым байтам (а не по расширению, как {@link PATH#GetFileExtension(String)})<br>
+     * Читается не больше {@value SNIFFER#HEADER} байтов одним чтением, результат кэшируется по пути, размеру и времени модификации,
+     * поэтому повторная проверка неизменённого файла стоит одного чтения атрибутов (или ноль, если папка в {@link INDEX})
+     * @param Path Путь до файла
+     * @return Формат файла ({@link FORMAT#EMPTY} для пустого файла, {@link FORMAT#UNKNOWN} если формат не распознан)
+     * @throws FileException Если файл не найден, или указана папка, или не получилось прочитать файл
+     */
+    public static FORMAT GetFileFormat(String Path) throws FileException {
+        try {
+            return SNIFFER.Sniff(Paths.get(Path));
+        } catch (NoSuchFileException e) {
+            throw new FileException("Не получилось определить формат файла [" + Path + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
+        } catch (Exception e) {
+            throw new FileException("Не получилось определить формат файла [" + Path + "]!", e);
+        }
+    }
+
+    /**
+     * Формат файла, определённый по содержимому ({@link #GetFileFormat(String)})
+     */
+    public enum FORMAT{
+        PNG("png", "image/png"), APNG("apng", "image/apng"), GIF("gif", "image/gif"), JPEG("jpg", "image/jpeg"),
+        WEBP("webp", "image/webp"), BMP("bmp", "image/bmp"), TIFF("tiff", "image/tiff"), ICO("ico", "image/x-icon"),
+        CUR("cur", "image/x-icon"), PSD("psd", "image/vnd.adobe.photoshop"), DDS("dds", "image/vnd-ms.dds"),
+        HDR("hdr", "image/vnd.radiance"), PDN("pdn", "application/octet-stream"), VTF("vtf", "application/octet-stream"),
+        MP4("mp4", "video/mp4"), MOV("mov", "video/quicktime"), AVI("avi", "video/x-msvideo"), FLV("flv", "video/x-flv"),
+        MKV("webm", "video/webm"), WMV("wmv", "video/x-ms-asf"), MPG("mpg", "video/mpeg"),
+        WAV("wav", "audio/wav"), OGG("ogg", "audio/ogg"), MP3("mp3", "audio/mpeg"), MIDI("mid", "audio/midi"),
+        AMR("amr", "audio/amr"), FLAC("flac", "audio/flac"),
+        GZIP("gz", "application/gzip"), ZIP("zip", "application/zip"), CAB("cab", "application/vnd.ms-cab-compressed"),
+        RAR("rar", "application/vnd.rar"), SEVENZIP("7z", "application/x-7z-compressed"),
+        EXE("exe", "application/vnd.microsoft.portable-executable"), ELF("elf", "application/x-executable"),
+        CLASS("class", "application/java-vm"), SQLITE("db", "application/vnd.sqlite3"), LNK("lnk", "application/x-ms-shortcut"),
+        TTF("ttf", "font/ttf"), OTF("otf", "font/otf"),
+        PDF("pdf", "application/pdf"), RTF("rtf", "application/rtf"), PS("ps", "application/postscript"),
+        SVG("svg", "image/svg+xml"), XML("xml", "application/xml"), HTML("html", "text/html"),
+        TEXT("txt", "text/plain"), EMPTY(null, "application/x-empty"), UNKNOWN(null, "application/octet-stream");
+
+        /**
+         * Обычное расширение файлов этого формата (без точки), <code>null</code> если его нет
+         */
+        public final String Extension;
+        /**
+         * MIME тип формата
+         */
+        public final String Mime;
+
+        FORMAT(String Extension, String Mime){
+            this.Extension = Extension;
+            this.Mime = Mime;
+        }
+    }
+
+    /**
+     * Определение формата по первым байтам: таблица сигнатур (разложенная по первому байту) и кэш результатов
+     */
+    static final class SNIFFER{
+        static final int HEADER = 512;
+        private static final int MAX_CACHED = 64 * 1024;
+
+        /** Сигнатуры с нулевым смещением, по первому байту */
+        private static final Signature[][] ByFirstByte = new Signature[256][];
+        /** Сигнатуры, которые начинаются не с нулевого смещения */
+        private static final List<Signature> Other = new ArrayList<>();
+        private static final Map<String, Cached> Cache = new ConcurrentHashMap<>();
+
+        static {
+            List<Signature> All = List.of(
+                    new Signature(FORMAT.PNG, 0, new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0d, 0x0a, 0x1a, 0x0a}),
+                    new Signature(FORMAT.GIF, 0, "GIF87a"), new Signature(FORMAT.GIF, 0, "GIF89a"),
+                    new Signature(FORMAT.JPEG, 0, new byte[]{(byte) 0xff, (byte) 0xd8, (byte) 0xff}),
+                    new Signature(FORMAT.WEBP, 0, "RIFF", 8, "WEBP"),
+                    new Signature(FORMAT.AVI, 0, "RIFF", 8, "AVI "),
+                    new Signature(FORMAT.WAV, 0, "RIFF", 8, "WAVE"),
+                    new Signature(FORMAT.BMP, 0, "BM"),
+                    new Signature(FORMAT.TIFF, 0, new byte[]{'I', 'I', 0x2a, 0}), new Signature(FORMAT.TIFF, 0, new byte[]{'M', 'M', 0, 0x2a}),
+                    new Signature(FORMAT.ICO, 0, new byte[]{0, 0, 1, 0}), new Signature(FORMAT.CUR, 0, new byte[]{0, 0, 2, 0}),
+                    new Signature(FORMAT.MPG, 0, new byte[]{0, 0, 1, (byte) 0xba}), new Signature(FORMAT.MPG, 0, new byte[]{0, 0, 1, (byte) 0xb3}),
+                    new Signature(FORMAT.TTF, 0, new byte[]{0, 1, 0, 0}), new Signature(FORMAT.OTF, 0, "OTTO"),
+                    new Signature(FORMAT.PSD, 0, "8BPS"), new Signature(FORMAT.DDS, 0, "DDS "),
+                    new Signature(FORMAT.HDR, 0, "#?RADIANCE"), new Signature(FORMAT.HDR, 0, "#?RGBE"),
+                    new Signature(FORMAT.PDN, 0, "PDN3"), new Signature(FORMAT.VTF, 0, new byte[]{'V', 'T', 'F', 0}),
+                    new Signature(FORMAT.FLV, 0, "FLV"), new Signature(FORMAT.MKV, 0, new byte[]{0x1a, 0x45, (byte) 0xdf, (byte) 0xa3}),
+                    new Signature(FORMAT.WMV, 0, new byte[]{0x30, 0x26, (byte) 0xb2, 0x75, (byte) 0x8e, 0x66, (byte) 0xcf, 0x11}),
+                    new Signature(FORMAT.OGG, 0, "OggS"), new Signature(FORMAT.MP3, 0, "ID3"), new Signature(FORMAT.MIDI, 0, "MThd"),
+                    new Signature(FORMAT.AMR, 0, "#!AMR"), new Signature(FORMAT.FLAC, 0, "fLaC"),
+                    new Signature(FORMAT.GZIP, 0, new byte[]{0x1f, (byte) 0x8b}),
+                    new Signature(FORMAT.ZIP, 0, new byte[]{'P', 'K', 3, 4}), new Signature(FORMAT.ZIP, 0, new byte[]{'P', 'K', 5, 6}),
+                    new Signature(FORMAT.CAB, 0, "MSCF"), new Signature(FORMAT.RAR, 0, "Rar!"),
+                    new Signature(FORMAT.SEVENZIP, 0, new byte[]{'7', 'z', (byte) 0xbc, (byte) 0xaf, 0x27, 0x1c}),
+                    new Signature(FORMAT.EXE, 0, "MZ"), new Signature(FORMAT.ELF, 0, new byte[]{0x7f, 'E', 'L', 'F'}),
+                    new Signature(FORMAT.CLASS, 0, new byte[]{(byte) 0xca, (byte) 0xfe, (byte) 0xba, (byte) 0xbe}),
+                    new Signature(FORMAT.SQLITE, 0, "SQLite format 3"),
+                    new Signature(FORMAT.LNK, 0, new byte[]{0x4c, 0, 0, 0, 1, 0x14, 2, 0}),
+                    new Signature(FORMAT.PDF, 0, "%PDF"), new Signature(FORMAT.RTF, 0, "{\\rtf"), new Signature(FORMAT.PS, 0, "%!PS"),
+                    new Signature(FORMAT.MOV, 4, "ftyp", 8, "qt  "),
+                    new Signature(FORMAT.MP4, 4, "ftyp")
+            );
+
+            List<List<Signature>> Buckets = new ArrayList<>();
+            for (int i = 0; i < 256; i++) Buckets.add(new ArrayList<>());
+            for (Signature Sign : All) {
+                if (Sign.Offsets[0] == 0) {
+                    Buckets.get(Sign.Parts[0][0] & 0xff).add(Sign);
+                } else {
+                    Other.add(Sign);
+                }
+            }
+            for (int i = 0; i < 256; i++) {
+                ByFirstByte[i] = Buckets.get(i).toArray(new Signature[0]);
+            }
+        }
+
+        /**
+         * Очищает кэш результатов (следующие вызовы заново читают первые байты файлов)
+         */
+        static void ClearCache(){ Cache.clear(); }
+
+        static FORMAT Sniff(Path file) throws IOException {
+            INDEX Index = INDEX.Find(file);
+            BasicFileAttributes attrs = Index != null ? Index.Get(file) : Files.readAttributes(file, BasicFileAttributes.class);
+            if (attrs == null) {
+                throw new NoSuchFileException(file.toString());
+            }
+            if (attrs.isDirectory()) {
+                throw new FileSystemException(file.toString(), null, "Путь указывает на папку, а не на файл!");
+            }
+
+            String Key = file.toString();
+            long Modified = attrs.lastModifiedTime().toMillis();
+            Cached Old = Cache.get(Key);
+            if (Old != null && Old.Size == attrs.size() && Old.Modified == Modified) {
+                return Old.Format;
+            }
+
+            FORMAT Result;
+            if (attrs.size() == 0) {
+                Result = FORMAT.EMPTY;
+            } else {
+                ByteBuffer Header = ByteBuffer.allocate(HEADER);
+                try (FileChannel Channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    Channel.read(Header, 0);
+                }
+                Header.flip();
+                byte[] Bytes = new byte[Header.remaining()];
+                Header.get(Bytes);
+                Result = Match(Bytes, Bytes.length);
+            }
+
+            if (Cache.size() >= MAX_CACHED) Cache.clear();
+            Cache.put(Key, new Cached(attrs.size(), Modified, Result));
+            return Result;
+        }
+
+        /**
+         * Определяет формат по первым байтам
+         * @param Bytes Первые байты файла
+         * @param Length Сколько байтов прочитано
+         * @return Формат файла
+         */
+        static FORMAT Match(byte[] Bytes, int Length){
+            if (Length == 0) return FORMAT.EMPTY;
+            FORMAT Result = null;
+            for (Signature Sign : ByFirstByte[Bytes[0] & 0xff]) {
+                if (Sign.Matches(Bytes, Length)) {
+                    Result = Sign.Format;
+                    break;
+                }
+            }
+            if (Result == null) {
+                for (Signature Sign : Other) {
+                    if (Sign.Matches(Bytes, Length)) {
+                        Result = Sign.Format;
+                        break;
+                    }
+                }
+            }
+
+            if (Result == FORMAT.PNG && IndexOf(Bytes, Length, "acTL") != -1) return FORMAT.APNG;
+            if (Result != null) return Result;
+
+            /* Текст в UTF-16 (BOM), иначе FF FE похоже на кадр MPEG */
+            if (Length > 1 && ((Bytes[0] & 0xff) == 0xff && (Bytes[1] & 0xff) == 0xfe || (Bytes[0] & 0xff) == 0xfe && (Bytes[1] & 0xff) == 0xff)) return FORMAT.TEXT;
+
+            /* MPEG аудио без ID3: синхронизация кадра 11 единиц подряд (но не AAC) */
+            if (Length > 2 && (Bytes[0] & 0xff) == 0xff && (Bytes[1] & 0xe0) == 0xe0 && (Bytes[1] & 0x06) != 0 && (Bytes[2] & 0xf0) != 0xf0) return FORMAT.MP3;
+
+            if (IsText(Bytes, Length)) {
+                String Start = new String(Bytes, 0, Math.min(Length, 256), StandardCharsets.UTF_8).stripLeading().toLowerCase(Locale.ROOT);
+                if (Start.startsWith("\ufeff")) Start = Start.substring(1);
+                if (Start.startsWith("<svg") || (Start.startsWith("<?xml") && Start.contains("<svg"))) return FORMAT.SVG;
+                if (Start.startsWith("<!doctype html") || Start.startsWith("<html")) return FORMAT.HTML;
+                if (Start.startsWith("<?xml")) return FORMAT.XML;
+                return FORMAT.TEXT;
+            }
+            return FORMAT.UNKNOWN;
+        }
+
+        /**
+         * Проверяет, похожи ли байты на текст в UTF-8 (без нулевых байтов и управляющих символов)
+         */
+        private static boolean IsText(byte[] Bytes, int Length){
+            int i = 0;
+            while (i < Length) {
+                int B = Bytes[i] & 0xff;
+                if (B < 0x80) {
+                    if (B < 0x20 && B != '\n' && B != '\r' && B != '\t' && B != '\f' && B != 0x1b) return false;
+                    i++;
+                    continue;
+                }
+                int More = B >= 0xf0 && B < 0xf8 ? 3 : B >= 0xe0 ? 2 : B >= 0xc2 ? 1 : -1;
+                if (More == -1 || B >= 0xf8) return false;
+                for (int j = 1; j <= More; j++) {
+                    /* Символ обрезан концом заголовка - это нормально */
+                    if (i + j >= Length) return true;
+                    if ((Bytes[i + j] & 0xc0) != 0x80) return false;
+                }
+                i += More + 1;
+            }
+            return true;
+        }
+
+        private static int IndexOf(byte[] Bytes, int Length, String Text){
+            outer:
+            for (int i = 0; i + Text.length() <= Length; i++) {
+                for (int j = 0; j < Text.length(); j++) {
+                    if (Bytes[i + j] != Text.charAt(j)) continue outer;
+                }
+                return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Сигнатура формата: набор байтов по указанным смещениям
+         */
+        private static final class Signature{
+            final FORMAT Format;
+            final int[] Offsets;
+            final byte[][] Parts;
+
+            Signature(FORMAT Format, int Offset, byte[] Bytes){
+                this.Format = Format;
+                this.Offsets = new int[]{Offset};
+                this.Parts = new byte[][]{Bytes};
+            }
+
+            Signature(FORMAT Format, int Offset, String Text){ this(Format, Offset, Text.getBytes(StandardCharsets.ISO_8859_1)); }
+
+            Signature(FORMAT Format, int Offset, String Text, int SecondOffset, String Second){
+                this.Format = Format;
+                this.Offsets = new int[]{Offset, SecondOffset};
+                this.Parts = new byte[][]{Text.getBytes(StandardCharsets.ISO_8859_1), Second.getBytes(StandardCharsets.ISO_8859_1)};
+            }
+
+            boolean Matches(byte[] Bytes, int Length){
+                for (int p = 0; p < Parts.length; p++) {
+                    byte[] Part = Parts[p];
+                    int Offset = Offsets[p];
+                    if (Offset + Part.length > Length) return false;
+                    for (int i = 0; i < Part.length; i++) {
+                        if (Bytes[Offset + i] != Part[i]) return false;
+                    }
+                }
+                return true;
+            }
+        }
+
+        private static final class Cached{
+            final long Size;
+            final long Modified;
+            final FORMAT Format;
+
+            Cached(long Size, long Modified, FORMAT Format){
+                this.Size = Size;
+                this.Modified = Modified;
+                this.Format = Format;
+            }
+        }
+    }
+
+    /**
+     * Получает массив всех файлов внутри указанной папки
+     * @param Path Путь до папки
+     * @param ExtraFolders Так же получить все файлы внутри под папок?
+     * @return Возвращает массив путей до файлов
+     * @throws FileException Если папка не найдена, или указан файл вместо папки, или не получилось получить все файлы внутри папки
+     */
+    public static List<String> GetAllFilesInFolder(String Path, boolean ExtraFolders) throws FileException {
+        return GetAllFilesInFolder(Path, new FILTER().Depth(ExtraFolders ? Integer.MAX_VALUE : 1));
+    }
+
+    /**
+     * Получает массив всех файлов внутри указанной папки, подходящих под фильтр
+     * @param Path Путь до папки
+     * @param Filter Фильтр файлов (расширения, glob, глубина)
+     * @return Возвращает массив путей до файлов
+     * @throws FileException Если папка не найдена, или указан файл вместо папки, или не получилось получить все файлы внутри папки
+     * @see #StreamAllFilesInFolder(String, FILTER)
+     */
+    public static List<String> GetAllFilesInFolder(String Path, FILTER Filter) throws FileException {
+        long Start = METRICS.Start();
+        try (Stream<String> stream = StreamAllFilesInFolder(Path, Filter)) {
+            List<String> Result = stream.collect(Collectors.toList());
+            METRICS.Done(METRICS.OPERATION.LIST_FOLDER, Start, 0, 0);
+            return Result;
+        } catch (FileException e) {
+            METRICS.Fail(METRICS.OPERATION.LIST_FOLDER, Start);
+            throw e;
+        } catch (Exception e) {
+            METRICS.Fail(METRICS.OPERATION.LIST_FOLDER, Start);
+            throw new FileException("Не получилось получить все файлы из папки [" + Path +"]", e);
+        }
+    }
+
+    /**
+     * Лениво получает все файлы внутри указанной папки, подходящие под фильтр<br>
+     * Папка обходится по мере чтения потока, атрибуты файлов берутся из обхода (без лишних обращений к диску)<br>
+     * Поток нужно закрыть (<code>try-with-resources</code>), ошибки во время обхода выбрасываются как {@link UncheckedIOException}
+     * @param Path Путь до папки
+     * @param Filter Фильтр файлов (расширения, glob, глубина)
+     * @return Поток путей до файлов
+     * @throws FileException Если папка не найдена, или указан файл вместо папки, или не получилось начать обход
+     */
+    public static Stream<String> StreamAllFilesInFolder(String Path, FILTER Filter) throws FileException {
+        try {
+            INDEX Index = INDEX.Find(Paths.get(Path));
+            if (Index != null) {
+                return Index.List(Paths.get(Path), Filter).stream();
+            }
+            Path Folder = ResolveFolder(Path);
+            return Files.find(Folder, Filter.Depth, Filter.Matcher(Folder)).map(java.nio.file.Path::toString);
+        }catch (Exception e){
+            throw new FileException("Не получилось получить все файлы из папки [" + Path +"]", e);
+        }
+    }
+
+    /**
+     * Обходит все файлы внутри указанной папки, подходящие под фильтр, и передаёт их в Action по одному
+     * @param Path Путь до папки
+     * @param Filter Фильтр файлов (расширения, glob, глубина)
+     * @param Action Что сделать с каждым путём до файла
+     * @throws FileException Если папка не найдена, или указан файл вместо папки, или не получилось обойти папку
+     */
+    public static void ForEachFileInFolder(String Path, FILTER Filter, Consumer<String> Action) throws FileException {
+        try (Stream<String> stream = StreamAllFilesInFolder(Path, Filter)) {
+            stream.forEach(Action);
+        } catch (FileException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new FileException("Не получилось обойти все файлы в папке [" + Path +"]", e);
+        }
+    }
+
+    /**
+     * Получает массив всех файлов внутри указанной папки, подходящих под фильтр, обходя папки параллельно<br>
+     * Каждая папка - отдельная задача {@link ForkJoinPool}, поэтому выигрыш есть на глубоких/широких папках и сетевых дисках<br>
+     * Набор файлов такой же, как у {@link #GetAllFilesInFolder(String, FILTER)}, но порядок не гарантирован
+     * @param Path Путь до папки
+     * @param Filter Фильтр файлов (расширения, glob, глубина)
+     * @param Parallelism Количество потоков, 0 или меньше - общий {@link ForkJoinPool#commonPool()}
+     * @return Возвращает массив путей до файлов (в произвольном порядке)
+     * @throws FileException Если папка не найдена, или указан файл вместо папки, или не получилось получить все файлы внутри папки
+     */
+    public static List<String> GetAllFilesInFolderParallel(String Path, FILTER Filter, int Parallelism) throws FileException {
+        long Start = METRICS.Start();
+        try {
+            Path Folder = ResolveFolder(Path);
+            /* Как и у Files.find: на глубине 0 только сама папка, а она не файл */
+            if (Filter.Depth < 1) {
+                METRICS.Done(METRICS.OPERATION.LIST_FOLDER, Start, 0, 0);
+                return new ArrayList<>();
+            }
+            ConcurrentLinkedQueue<String> Result = new ConcurrentLinkedQueue<>();
+            PARALLEL_WALK Walk = new PARALLEL_WALK(Folder, 1, Filter.Depth, Filter.Matcher(Folder), Result);
+
+            ForkJoinPool Pool = Parallelism > 0 ? new ForkJoinPool(Parallelism) : ForkJoinPool.commonPool();
+            try {
+                Pool.invoke(Walk);
+            } finally {
+                if (Pool != ForkJoinPool.commonPool()) Pool.shutdown();
+            }
+            METRICS.Done(METRICS.OPERATION.LIST_FOLDER, Start, 0, 0);
+            return new ArrayList<>(Result);
+        }catch (Exception e){
+            METRICS.Fail(METRICS.OPERATION.LIST_FOLDER, Start);
+            throw new FileException("Не получилось получить все файлы из папки [" + Path +"]", e);
+        }
+    }
+
+    /**
+     * Получает массив всех файлов внутри указанной папки, обходя папки параллельно на всех ядрах
+     * @param Path Путь до папки
+     * @param ExtraFolders Так же получить все файлы внутри под папок?
+     * @return Возвращает массив путей до файлов (в произвольном порядке)
+     * @throws FileException Если папка не найдена, или указан файл вместо папки, или не получилось получить все файлы внутри папки
+     * @see #GetAllFilesInFolderParallel(String, FILTER, int)
+     */
+    public static List<String> GetAllFilesInFolderParallel(String Path, boolean ExtraFolders) throws FileException {
+        return GetAllFilesInFolderParallel(Path, new FILTER().Depth(ExtraFolders ? Integer.MAX_VALUE : 1), 0);
+    }
+
+    /**
+     * Задача параллельного обхода одной папки, под папки становятся отдельными задачами
+     */
+    private static final class PARALLEL_WALK extends RecursiveAction{
+        private static final long serialVersionUID = 1L;
+
+        private final Path Folder;
+        private final int Depth;
+        private final int MaxDepth;
+        private final BiPredicate<Path, BasicFileAttributes> Matcher;
+        private final Queue<String> Result;
+
+        PARALLEL_WALK(Path Folder, int Depth, int MaxDepth, BiPredicate<Path, BasicFileAttributes> Matcher, Queue<String> Result){
+            this.Folder = Folder;
+            this.Depth = Depth;
+            this.MaxDepth = MaxDepth;
+            this.Matcher = Matcher;
+            this.Result = Result;
+        }
+
+        @Override
+        protected void compute(){
+            List<PARALLEL_WALK> Children = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(Folder)) {
+                for (Path file : stream) {
+                    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (attrs.isDirectory()) {
+                        if (Depth < MaxDepth) {
+                            Children.add(new PARALLEL_WALK(file, Depth + 1, MaxDepth, Matcher, Result));
+                        }
+                    } else if (Matcher.test(file, attrs)) {
+                        Result.add(file.toString());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            invokeAll(Children);
+        }
+    }
+
+    /**
+     * Находит папку по пути (сначала среди ресурсов, потом на диске)
+     * @param Path Путь до папки
+     * @return Путь до папки
+     * @throws Exception Если папка не найдена, или указан файл вместо папки
+     */
+    private static Path ResolveFolder(String Path) throws Exception {
+        Path file;
+
+        URL url = CL.getResource(Path);
+        if (url == null) {
+            file = Paths.get(Path);
+
+            if (!Files.exists(file)) {
+                throw new DirectoryNotFoundException(FOLDER_NOT_FOUND_MESSAGE);
+            }
+        }else{
+            file = Paths.get(url.toURI());
+        }
+
+        if(!Files.isDirectory(file)){
+            throw new NotDirectoryException("Путь указывает на файл, а не на папку!");
+        }
+        return file;
+    }
+
+    /**
+     * Фильтр для получения файлов внутри папки ({@link #StreamAllFilesInFolder(String, FILTER)})<br>
+     * Проверяется прямо во время обхода, по уже прочитанным атрибутам файла<br>
+     * По умолчанию пропускает все файлы без под папок: <code>new FILTER().Extension("png", "jpg").Depth(3)</code>
+     */
+    public static class FILTER{
+        private String[] Extensions = null;
+        private String Glob = null;
+        private int Depth = 1;
+
+        /**
+         * Пропускать только файлы с указанными расширениями (без точки, без учёта регистра)
+         * @param Extensions Расширения файлов
+         * @return Этот фильтр
+         */
+        public FILTER Extension(String... Extensions){
+            this.Extensions = new String[Extensions.length];
+            for (int i = 0; i < Extensions.length; i++) {
+                this.Extensions[i] = Extensions[i].toLowerCase(Locale.ROOT);
+            }
+            return this;
+        }
+
+        /**
+         * Пропускать только файлы, путь которых (относительно папки) подходит под glob, например <code>**&#47;*.png</code>
+         * @param Glob Glob шаблон
+         * @return Этот фильтр
+         */
+        public FILTER Glob(String Glob){
+            this.Glob = Glob;
+            return this;
+        }
+
+        /**
+         * Максимальная глубина обхода, 1 - только файлы внутри самой папки, 0 - ни одного файла
+         * @param Depth Глубина (не меньше 0)
+         * @return Этот фильтр
+         * @throws IllegalArgumentException Если глубина меньше 0
+         */
+        public FILTER Depth(int Depth){
+            if (Depth < 0) throw new IllegalArgumentException("Глубина обхода не может быть меньше 0!");
+            this.Depth = Depth;
+            return this;
+        }
+
+        /**
+         * Так же получить все файлы внутри под папок
+         * @return Этот фильтр
+         */
+        public FILTER Recursive(){ return Depth(Integer.MAX_VALUE); }
+
+        BiPredicate<Path, BasicFileAttributes> Matcher(Path Folder){
+            PathMatcher GlobMatcher = Glob == null ? null : Folder.getFileSystem().getPathMatcher("glob:" + Glob);
+            String[] Extensions = this.Extensions;
+            return (file, attrs) -> {
+                /* Ссылки проверяем отдельно, как это делал Files.isRegularFile */
+                if (!(attrs.isRegularFile() || (attrs.isSymbolicLink() && Files.isRegularFile(file)))) return false;
+                if (Extensions != null && !HasExtension(file.getFileName().toString(), Extensions)) return false;
+                return GlobMatcher == null || GlobMatcher.matches(Folder.relativize(file));
+            };
+        }
+
+        private static boolean HasExtension(String FileName, String[] Extensions){
+            int Dot = FileName.lastIndexOf('.');
+            if (Dot == -1) return false;
+            int Length = FileName.length() - Dot - 1;
+            for (String Extension : Extensions) {
+                if (Extension.length() == Length && FileName.regionMatches(true, Dot + 1, Extension, 0, Length)) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Индекс папки в памяти, который обновляется через {@link WatchService}<br>
+     * Пока папка зарегистрирована ({@link #Register(String)}), {@link #HasFile(String)}, {@link #GetLastModificationDate(String)}
+     * и {@link #GetAllFilesInFolder(String, boolean)} для путей внутри неё отвечают из памяти, без обращения к диску<br>
+     * Изменения применяются по событиям (создание, изменение, удаление), при переполнении очереди событий папка сканируется заново.
+     * События приходят асинхронно, поэтому индекс может отставать от диска на короткое время
+     */
+    public static final class INDEX implements Closeable{
+        private static final Map<Path, INDEX> Indexes = new ConcurrentHashMap<>();
+
+        private final Path Root;
+        private final WatchService Watcher;
+        private final Map<WatchKey, Path> Keys = new ConcurrentHashMap<>();
+        private volatile Snapshot Current = new Snapshot();
+        private final Thread Worker;
+
+        private INDEX(Path Root) throws IOException {
+            this.Root = Root;
+            this.Watcher = Root.getFileSystem().newWatchService();
+            Scan(Root, Current);
+            this.Worker = new Thread(this::Run, "ExplorerAction-INDEX-" + Root.getFileName());
+            this.Worker.setDaemon(true);
+            this.Worker.start();
+        }
+
+        /**
+         * Начинает держать папку (со всеми под папками) в памяти
+         * @param Path Путь до папки
+         * @throws DirectoryException Если папка не найдена, или указан файл вместо папки, или не получилось начать следить за папкой
+         */
+        public static void Register(String Path) throws DirectoryException {
+            try {
+                Path Folder = Paths.get(Path).toAbsolutePath().normalize();
+                if (!Files.isDirectory(Folder)) {
+                    throw new DirectoryNotFoundException(FOLDER_NOT_FOUND_MESSAGE);
+                }
+                synchronized (Indexes) {
+                    if (!Indexes.containsKey(Folder)) {
+                        Indexes.put(Folder, new INDEX(Folder));
+                    }
+                }
+            } catch (Exception e) {
+                throw new DirectoryException("Не получилось проиндексировать папку [" + Path + "]!", e);
+            }
+        }
+
+        /**
+         * Перестаёт держать папку в памяти
+         * @param Path Путь до папки
+         */
+        public static void Unregister(String Path){
+            INDEX Index = Indexes.remove(Paths.get(Path).toAbsolutePath().normalize());
+            if (Index != null) Index.close();
+        }
+
+        /**
+         * Проверяет, отвечают ли функции для указанного пути из памяти
+         * @param Path Путь до файла или папки
+         * @return "Путь находится внутри проиндексированной папки?"
+         */
+        public static boolean IsIndexed(String Path){ return Find(Paths.get(Path)) != null; }
+
+        /**
+         * Ищет индекс, внутри которого находится указанный путь
+         * @param file Путь до файла или папки
+         * @return Индекс, или <code>null</code> если путь не проиндексирован
+         */
+        static INDEX Find(Path file){
+            if (Indexes.isEmpty()) return null;
+            Path Absolute = file.toAbsolutePath().normalize();
+            for (INDEX Index : Indexes.values()) {
+                if (Absolute.startsWith(Index.Root)) return Index;
+            }
+            return null;
+        }
+
+        /**
+         * Получает атрибуты файла или папки из памяти
+         * @param file Путь до файла или папки
+         * @return Атрибуты, или <code>null</code> если файла нет
+         */
+        BasicFileAttributes Get(Path file){
+            return Current.Entries.get(file.toAbsolutePath().normalize());
+        }
+
+        /**
+         * Получает все файлы внутри папки из памяти, пути строятся от указанного Folder (как у {@link Files#find})
+         * @param Folder Путь до папки
+         * @param Filter Фильтр файлов
+         * @return Массив путей до файлов
+         * @throws Exception Если папка не найдена, или указан файл вместо папки
+         */
+        List<String> List(Path Folder, FILTER Filter) throws Exception {
+            Path Absolute = Folder.toAbsolutePath().normalize();
+            Snapshot Snapshot = Current;
+            BasicFileAttributes attrs = Snapshot.Entries.get(Absolute);
+            if (attrs == null) {
+                throw new DirectoryNotFoundException(FOLDER_NOT_FOUND_MESSAGE);
+            }
+            if (!attrs.isDirectory()) {
+                throw new NotDirectoryException("Путь указывает на файл, а не на папку!");
+            }
+            List<String> Result = new ArrayList<>();
+            Collect(Snapshot, Absolute, 1, Filter.Depth, Filter.Matcher(Absolute), Folder, Absolute, Result);
+            return Result;
+        }
+
+        private static void Collect(Snapshot Snapshot, Path Dir, int Depth, int MaxDepth, BiPredicate<Path, BasicFileAttributes> Matcher, Path Folder, Path Absolute, List<String> Result){
+            Set<Path> Children = Snapshot.Children.get(Dir);
+            if (Children == null) return;
+            for (Path Child : Children) {
+                BasicFileAttributes attrs = Snapshot.Entries.get(Child);
+                if (attrs == null) continue;
+                if (attrs.isDirectory()) {
+                    if (Depth < MaxDepth) Collect(Snapshot, Child, Depth + 1, MaxDepth, Matcher, Folder, Absolute, Result);
+                } else if (Matcher.test(Child, attrs)) {
+                    Result.add(Folder.resolve(Absolute.relativize(Child)).toString());
+                }
+            }
+        }
+
+        private void Run(){
+            try {
+                while (true) {
+                    WatchKey Key = Watcher.take();
+                    Path Dir = Keys.get(Key);
+                    if (Dir == null) {
+                        /* Ключ от прошлого сканирования */
+                        Key.cancel();
+                        continue;
+                    }
+                    for (WatchEvent<?> Event : Key.pollEvents()) {
+                        if (Event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            Rescan();
+                            break;
+                        }
+                        Path Child = Dir.resolve((Path) Event.context());
+                        if (Event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                            Remove(Current, Child);
+                        } else if (Files.isDirectory(Child, LinkOption.NOFOLLOW_LINKS)) {
+                            Scan(Child, Current);
+                        } else {
+                            Update(Current, Child);
+                        }
+                    }
+                    if (!Key.reset()) {
+                        Keys.remove(Key);
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                /* Индекс закрыт */
+            }
+        }
+
+        private void Rescan(){
+            Snapshot Fresh = new Snapshot();
+            for (WatchKey Key : Keys.keySet()) Key.cancel();
+            Keys.clear();
+            Scan(Root, Fresh);
+            Current = Fresh;
+        }
+
+        private void Scan(Path Dir, Snapshot Snapshot){
+            try {
+                Files.walkFileTree(Dir, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                        Keys.put(dir.register(Watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY), dir);
+                        Snapshot.Put(dir, attrs);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs){
+                        Snapshot.Put(file, attrs);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e){
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                /* Папку успели удалить, событие удаления придёт отдельно */
+            }
+        }
+
+        private static void Update(Snapshot Snapshot, Path file){
+            try {
+                Snapshot.Put(file, Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+            } catch (IOException e) {
+                Remove(Snapshot, file);
+            }
+        }
+
+        private static void Remove(Snapshot Snapshot, Path file){
+            Snapshot.Entries.remove(file);
+            Set<Path> Siblings = Snapshot.Children.get(file.getParent());
+            if (Siblings != null) Siblings.remove(file);
+            Set<Path> Children = Snapshot.Children.remove(file);
+            if (Children != null) {
+                for (Path Child : Children) Remove(Snapshot, Child);
+            }
+        }
+
+        /**
+         * Перестаёт следить за папкой
+         */
+        @Override
+        public void close(){
+            Indexes.remove(Root, this);
+            try {
+                Watcher.close();
+            } catch (IOException e) {
+                /* Уже закрыт */
+            }
+            Worker.interrupt();
+        }
+
+        /**
+         * Содержимое индекса: атрибуты всех путей и список детей каждой папки
+         */
+        private static final class Snapshot{
+            final Map<Path, BasicFileAttributes> Entries = new ConcurrentHashMap<>();
+            final Map<Path, Set<Path>> Children = new ConcurrentHashMap<>();
+
+            void Put(Path file, BasicFileAttributes attrs){
+                Entries.put(file, attrs);
+                Path Parent = file.getParent();
+                if (Parent != null) {
+                    Children.computeIfAbsent(Parent, k -> ConcurrentHashMap.newKeySet()).add(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Индекс хэшей содержимого файлов, для поиска одинаковых файлов и ключей кэша<br>
+     * Хэши хранятся по пути вместе с размером и временем модификации, поэтому при повторном {@link #Update(String, FILTER, int)}
+     * заново хэшируются только изменённые файлы; хэширование идёт параллельно, большие файлы читаются через отображение в память<br>
+     * Пути хранятся абсолютными и нормализованными (без <code>.</code> и <code>..</code>), поэтому один файл - всегда одна запись
+     */
+    public static final class HASH{
+        private static final long WINDOW = 64L * 1024 * 1024;
+
+        private final String Algorithm;
+        private final Map<String, Entry> Entries = new ConcurrentHashMap<>();
+
+        /**
+         * Создаёт пустой индекс хэшей
+         * @param Algorithm Алгоритм хэширования ({@link MessageDigest}), например <code>SHA-256</code>
+         * @throws FileException Если алгоритм не поддерживается
+         */
+        public HASH(String Algorithm) throws FileException {
+            try {
+                MessageDigest.getInstance(Algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new FileException("Алгоритм хэширования [" + Algorithm + "] не поддерживается!", e);
+            }
+            this.Algorithm = Algorithm;
+        }
+
+        /**
+         * Создаёт пустой индекс хэшей SHA-256
+         * @throws FileException Если алгоритм не поддерживается
+         */
+        public HASH() throws FileException { this("SHA-256"); }
+
+        /**
+         * Обновляет хэши всех файлов внутри указанной папки, подходящих под фильтр<br>
+         * Файлы с тем же размером и временем модификации не хэшируются заново, удалённые файлы убираются из индекса
+         * @param Path Путь до папки
+         * @param Filter Фильтр файлов (расширения, glob, глубина)
+         * @param Threads Количество потоков, 0 или меньше - общий {@link ForkJoinPool#commonPool()}
+         * @return Количество файлов, которые пришлось хэшировать
+         * @throws FileException Если папка не найдена, или не получилось прочитать какой-то файл
+         */
+        public int Update(String Path, FILTER Filter, int Threads) throws FileException {
+            METADATA Found = GetMetadataInFolder(Path, Filter);
+            try {
+                List<Integer> Changed = new ArrayList<>();
+                String[] Keys = new String[Found.Count];
+                Set<String> Seen = new HashSet<>();
+                for (int i = 0; i < Found.Count; i++) {
+                    Keys[i] = Key(Found.Paths[i]);
+                    Seen.add(Keys[i]);
+                    Entry Old = Entries.get(Keys[i]);
+                    if (Old == null || Old.Size != Found.Sizes[i] || Old.Modified != Found.LastModified[i]) {
+                        Changed.add(i);
+                    }
+                }
+
+                Path Folder = ResolveFolder(Path).toAbsolutePath().normalize();
+                Entries.keySet().removeIf(Key -> !Seen.contains(Key) && Paths.get(Key).startsWith(Folder) && !Files.exists(Paths.get(Key)));
+
+                ForkJoinPool Pool = Threads > 0 ? new ForkJoinPool(Threads) : ForkJoinPool.commonPool();
+                try {
+                    Pool.submit(() -> Changed.parallelStream().forEach(i -> {
+                        try {
+                            Entries.put(Keys[i], new Entry(Found.Sizes[i], Found.LastModified[i], Digest(Paths.get(Found.Paths[i]))));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })).get();
+                } finally {
+                    if (Pool != ForkJoinPool.commonPool()) Pool.shutdown();
+                }
+                return Changed.size();
+            } catch (Exception e) {
+                throw new FileException("Не получилось посчитать хэши файлов в папке [" + Path + "]!", e);
+            }
+        }
+
+        /**
+         * Получает хэш указанного файла (считает его, если файла нет в индексе или он изменился)
+         * @param Path Путь до файла
+         * @return Хэш в виде hex строки
+         * @throws FileException Если файл не найден, или не получилось прочитать файл
+         */
+        public String GetHash(String Path) throws FileException {
+            try {
+                Path file = Paths.get(Path);
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                long Modified = attrs.lastModifiedTime().toMillis();
+                String Key = Key(Path);
+                Entry Old = Entries.get(Key);
+                if (Old == null || Old.Size != attrs.size() || Old.Modified != Modified) {
+                    Old = new Entry(attrs.size(), Modified, Digest(file));
+                    Entries.put(Key, Old);
+                }
+                return Hex(Old.Digest);
+            } catch (NoSuchFileException e) {
+                throw new FileException("Не получилось посчитать хэш файла [" + Path + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
+            } catch (Exception e) {
+                throw new FileException("Не получилось посчитать хэш файла [" + Path + "]!", e);
+            }
+        }
+
+        /**
+         * Получает группы одинаковых (по содержимому) файлов среди уже посчитанных
+         * @return Группы путей (абсолютных), в каждой группе больше одного файла
+         */
+        public List<List<String>> GetDuplicates(){
+            Map<String, List<String>> Groups = new HashMap<>();
+            for (Map.Entry<String, Entry> Item : Entries.entrySet()) {
+                Entry Value = Item.getValue();
+                Groups.computeIfAbsent(Value.Size + ":" + Hex(Value.Digest), k -> new ArrayList<>()).add(Item.getKey());
+            }
+            List<List<String>> Result = new ArrayList<>();
+            for (List<String> Group : Groups.values()) {
+                if (Group.size() > 1) {
+                    Collections.sort(Group);
+                    Result.add(Group);
+                }
+            }
+            return Result;
+        }
+
+        /**
+         * @return Количество файлов в индексе
+         */
+        public int Size(){ return Entries.size(); }
+
+        private byte[] Digest(Path file) throws IOException {
+            MessageDigest Digest;
+            try {
+                Digest = MessageDigest.getInstance(Algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+            try (FileChannel Channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long Size = Channel.size();
+                if (Size < MAP_THRESHOLD) {
+                    ByteBuffer Buffer = ReadRange(Channel, 0, Size);
+                    Digest.update(Buffer);
+                    BUFFERS.Release(Buffer);
+                } else {
+                    for (long Position = 0; Position < Size; Position += WINDOW) {
+                        Digest.update(Channel.map(FileChannel.MapMode.READ_ONLY, Position, Math.min(WINDOW, Size - Position)));
+                    }
+                }
+            }
+            return Digest.digest();
+        }
+
+        /**
+         * Ключ индекса: абсолютный нормализованный путь
+         */
+        private static String Key(String Path){ return Paths.get(Path).toAbsolutePath().normalize().toString(); }
+
+        private static String Hex(byte[] Bytes){
+            StringBuilder Result = new StringBuilder(Bytes.length * 2);
+            for (byte B : Bytes) {
+                Result.append(Character.forDigit((B >> 4) & 0xf, 16)).append(Character.forDigit(B & 0xf, 16));
+            }
+            return Result.toString();
+        }
+
+        private static final class Entry{
+            final long Size;
+            final long Modified;
+            final byte[] Digest;
+
+            Entry(long Size, long Modified, byte[] Digest){
+                this.Size = Size;
+                this.Modified = Modified;
+                this.Digest = Digest;
+            }
+        }
+    }
+
+    /**
+     * Снимок содержимого папки (пути и атрибуты всех файлов и под папок) в компактном файле, для быстрого холодного старта<br>
+     * Пути хранятся отсортированными и сжатыми по общему префиксу, атрибуты - колонками фиксированной ширины.
+     * При загрузке ({@link #Load(String, String)}) файл снимка читается целиком одним буфером, и заново читаются только те папки,
+     * у которых поменялось время модификации (значит внутри создали, удалили или переименовали файл)<br>
+     * Изменение содержимого файла не меняет время модификации папки, поэтому размеры и время файлов в снимке могут отставать
+     */
+    public static final class SNAPSHOT{
+        private static final int MAGIC = 0x575a534e;
+        private static final int VERSION = 2;
+
+        private final Path Root;
+        /** Пути относительно Root (через <code>/</code>), отсортированы */
+        private final TreeMap<String, Item> Items;
+        private int Rescanned = 0;
+        private boolean Changed = false;
+
+        private SNAPSHOT(Path Root, TreeMap<String, Item> Items){
+            this.Root = Root;
+            this.Items = Items;
+        }
+
+        /**
+         * Полностью обходит папку и создаёт снимок (без сохранения)
+         * @param Path Путь до папки
+         * @return Снимок папки
+         * @throws DirectoryException Если папка не найдена, или не получилось обойти папку
+         */
+        public static SNAPSHOT Scan(String Path) throws DirectoryException {
+            try {
+                Path Root = ResolveFolder(Path).toAbsolutePath().normalize();
+                SNAPSHOT Result = new SNAPSHOT(Root, new TreeMap<>());
+                Result.ScanTree(Root);
+                Result.Changed = true;
+                return Result;
+            } catch (Exception e) {
+                throw new DirectoryException("Не получилось создать снимок папки [" + Path + "]!", e);
+            }
+        }
+
+        /**
+         * Загружает снимок папки из файла и обновляет папки, которые поменялись с момента сохранения<br>
+         * Если файла снимка нет, или он от другой папки, или повреждён - папка обходится полностью
+         * @param Path Путь до папки
+         * @param SnapshotFile Путь до файла снимка
+         * @return Снимок папки
+         * @throws DirectoryException Если папка не найдена, или не получилось обойти папку
+         */
+        public static SNAPSHOT Load(String Path, String SnapshotFile) throws DirectoryException {
+            try {
+                Path Root = ResolveFolder(Path).toAbsolutePath().normalize();
+                TreeMap<String, Item> Items = Read(Paths.get(SnapshotFile), Root.toString(), -1, -1);
+                if (Items == null) {
+                    return Scan(Path);
+                }
+                SNAPSHOT Result = new SNAPSHOT(Root, Items);
+                Result.Refresh();
+                return Result;
+            } catch (DirectoryException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new DirectoryException("Не получилось загрузить снимок папки [" + Path + "]!", e);
+            }
+        }
+
+        /**
+         * Сохраняет снимок в файл (атомарно, через временный файл)
+         * @param SnapshotFile Путь до файла снимка
+         * @throws FileException Если не получилось записать файл
+         */
+        public void Save(String SnapshotFile) throws FileException {
+            try {
+                Write(Paths.get(SnapshotFile), Root.toString(), 0, 0, Items);
+                Changed = false;
+            } catch (Exception e) {
+                throw new FileException("Не получилось сохранить снимок папки в файл [" + SnapshotFile + "]!", e);
+            }
+        }
+
+        /**
+         * Получает массив всех файлов внутри указанной папки из снимка (без обращения к диску)
+         * @param SubPath Путь до папки относительно корня снимка (<code>""</code> - сам корень)
+         * @param ExtraFolders Так же получить все файлы внутри под папок?
+         * @return Возвращает массив путей до файлов (как у {@link ExplorerAction#GetAllFilesInFolder(String, boolean)})
+         */
+        public List<String> GetAllFilesInFolder(String SubPath, boolean ExtraFolders){
+            String Prefix = SubPath.replace('\\', '/');
+            while (Prefix.endsWith("/")) Prefix = Prefix.substring(0, Prefix.length() - 1);
+            Map<String, Item> Range = Prefix.isEmpty() ? Items : Items.subMap(Prefix + "/", Prefix + "0");
+            int From = Prefix.isEmpty() ? 0 : Prefix.length() + 1;
+
+            List<String> Result = new ArrayList<>();
+            for (Map.Entry<String, Item> Entry : Range.entrySet()) {
+                if (Entry.getValue().Directory) continue;
+                if (!ExtraFolders && Entry.getKey().indexOf('/', From) != -1) continue;
+                Result.add(Root.resolve(Entry.getKey()).toString());
+            }
+            return Result;
+        }
+
+        /**
+         * Получает атрибуты файла или папки из снимка
+         * @param SubPath Путь относительно корня снимка
+         * @return <code>{размер, время модификации}</code>, или <code>null</code> если такого пути нет
+         */
+        public long[] GetAttributes(String SubPath){
+            Item Value = Items.get(SubPath.replace('\\', '/'));
+            return Value == null ? null : new long[]{Value.Size, Value.Modified};
+        }
+
+        /**
+         * @return Количество папок, которые пришлось прочитать заново при загрузке
+         */
+        public int GetRescanned(){ return Rescanned; }
+
+        /**
+         * @return "Снимок отличается от сохранённого?" (стоит вызвать {@link #Save(String)})
+         */
+        public boolean IsChanged(){ return Changed; }
+
+        /**
+         * Проверяет время модификации всех папок и перечитывает только изменённые
+         */
+        private void Refresh() throws IOException {
+            List<String> Directories = new ArrayList<>();
+            Directories.add("");
+            for (Map.Entry<String, Item> Entry : Items.entrySet()) {
+                if (Entry.getValue().Directory) Directories.add(Entry.getKey());
+            }
+            for (String Dir : Directories) {
+                Item Old = Dir.isEmpty() ? null : Items.get(Dir);
+                if (!Dir.isEmpty() && Old == null) continue; /* Уже удалена вместе с родителем */
+                Path Folder = Dir.isEmpty() ? Root : Root.resolve(Dir);
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(Folder, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (NoSuchFileException e) {
+                    RemoveTree(Dir);
+                    Changed = true;
+                    continue;
+                }
+                if (!Dir.isEmpty() && !attrs.isDirectory()) {
+                    /* Папку заменили файлом с тем же именем */
+                    RemoveTree(Dir);
+                    Put(Dir, attrs);
+                    Changed = true;
+                    continue;
+                }
+                long Modified = attrs.lastModifiedTime().toMillis();
+                Item Stored = Dir.isEmpty() ? Items.get(".") : Old;
+                if (Stored == null || Stored.Modified != Modified) {
+                    RescanFolder(Dir, Folder);
+                    Rescanned++;
+                    Changed = true;
+                }
+            }
+        }
+
+        /**
+         * Перечитывает прямое содержимое одной папки, новые под папки обходятся полностью
+         */
+        private void RescanFolder(String Dir, Path Folder) throws IOException {
+            String Prefix = Dir.isEmpty() ? "" : Dir + "/";
+            Set<String> Present = new HashSet<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(Folder)) {
+                for (Path file : stream) {
+                    String Key = Prefix + file.getFileName().toString();
+                    Present.add(Key);
+                    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    Item Old = Items.get(Key);
+                    if (attrs.isDirectory() && (Old == null || !Old.Directory)) {
+                        ScanTree(file);
+                    } else if (!attrs.isDirectory() && Old != null && Old.Directory) {
+                        RemoveTree(Key);
+                    }
+                    /* У папок время модификации обновится отдельно, когда до неё дойдёт Refresh */
+                    if (Old == null || !attrs.isDirectory()) Put(Key, attrs);
+                }
+            }
+            /* Удаляем пропавшие прямые дети */
+            List<String> Gone = new ArrayList<>();
+            Map<String, Item> Range = Prefix.isEmpty() ? Items : Items.subMap(Prefix, Dir + "0");
+            for (String Key : Range.keySet()) {
+                if (Key.equals(".") || Key.indexOf('/', Prefix.length()) != -1) continue;
+                if (!Present.contains(Key)) Gone.add(Key);
+            }
+            for (String Key : Gone) RemoveTree(Key);
+
+            BasicFileAttributes attrs = Files.readAttributes(Folder, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            Put(Dir.isEmpty() ? "." : Dir, attrs);
+        }
+
+        private void ScanTree(Path Folder) throws IOException {
+            Files.walkFileTree(Folder, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs){
+                    Put(dir.equals(Root) ? "." : Key(dir), attrs);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs){
+                    Put(Key(file), attrs);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e){
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+
+        private String Key(Path file){
+            return Root.relativize(file).toString().replace('\\', '/');
+        }
+
+        private void Put(String Key, BasicFileAttributes attrs){
+            Items.put(Key, new Item(attrs.isDirectory() ? 0 : attrs.size(), attrs.lastModifiedTime().toMillis(), attrs.isDirectory()));
+        }
+
+        private void RemoveTree(String Key){
+            Items.remove(Key);
+            Items.subMap(Key + "/", Key + "0").clear();
+        }
+
+        /**
+         * Записывает снимок: заголовок, колонки атрибутов фиксированной ширины, пути сжатые по общему префиксу, и CRC32 всего этого в конце
+         * @param file Файл снимка
+         * @param Source Что описывает снимок (путь до папки или Jar)
+         * @param Stamp Время модификации источника (для Jar)
+         * @param SourceSize Размер источника (для Jar)
+         * @param Items Отсортированные пути и атрибуты
+         */
+        static void Write(Path file, String Source, long Stamp, long SourceSize, SortedMap<String, Item> Items) throws IOException {
+            ByteArrayOutputStream Bytes = new ByteArrayOutputStream(Items.size() * 32 + 64);
+            DataOutputStream OUT = new DataOutputStream(Bytes);
+            OUT.writeInt(MAGIC);
+            OUT.writeInt(VERSION);
+            byte[] SourceBytes = Source.getBytes(StandardCharsets.UTF_8);
+            OUT.writeInt(SourceBytes.length);
+            OUT.write(SourceBytes);
+            OUT.writeLong(Stamp);
+            OUT.writeLong(SourceSize);
+            OUT.writeInt(Items.size());
+            for (Item Value : Items.values()) OUT.writeLong(Value.Size);
+            for (Item Value : Items.values()) OUT.writeLong(Value.Modified);
+            for (Item Value : Items.values()) OUT.writeByte(Value.Directory ? 1 : 0);
+
+            byte[] Previous = new byte[0];
+            for (String Key : Items.keySet()) {
+                byte[] Name = Key.getBytes(StandardCharsets.UTF_8);
+                int Shared = 0;
+                int Max = Math.min(Previous.length, Name.length);
+                while (Shared < Max && Previous[Shared] == Name[Shared]) Shared++;
+                WriteVarInt(OUT, Shared);
+                WriteVarInt(OUT, Name.length - Shared);
+                OUT.write(Name, Shared, Name.length - Shared);
+                Previous = Name;
+            }
+            OUT.flush();
+            CRC32 Checksum = new CRC32();
+            Checksum.update(Bytes.toByteArray());
+            OUT.writeInt((int) Checksum.getValue());
+            OUT.flush();
+
+            /* Своё уникальное имя временного файла, чтобы одновременные сохранения не затирали друг друга */
+            Path Absolute = file.toAbsolutePath();
+            Path Temp = Files.createTempFile(Absolute.getParent(), Absolute.getFileName() + ".", ".tmp");
+            try {
+                Files.write(Temp, Bytes.toByteArray());
+                Files.move(Temp, Absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(Temp);
+            }
+        }
+
+        /**
+         * Читает снимок в обычный буфер (файл не отображается в память, иначе на Windows его нельзя заменить, пока буфер не соберёт GC)<br>
+         * Все длины внутри файла проверяются до выделения памяти, поэтому повреждённый снимок просто не читается
+         * @param file Файл снимка
+         * @param Source Что должен описывать снимок
+         * @param Stamp Ожидаемое время модификации источника (-1 - не проверять)
+         * @param SourceSize Ожидаемый размер источника (-1 - не проверять)
+         * @return Пути и атрибуты, или <code>null</code> если снимка нет, он от другого источника или повреждён
+         */
+        static TreeMap<String, Item> Read(Path file, String Source, long Stamp, long SourceSize){
+            try (FileChannel Channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long Size = Channel.size();
+                if (Size > Integer.MAX_VALUE) return null;
+                ByteBuffer Buffer = ByteBuffer.allocate((int) Size);
+                while (Buffer.hasRemaining()) {
+                    if (Channel.read(Buffer) < 0) break;
+                }
+                Buffer.flip();
+                if (Buffer.limit() < 12 || Buffer.getInt() != MAGIC || Buffer.getInt() != VERSION) return null;
+
+                /* Любое повреждение содержимого ловится по CRC32, до разбора */
+                int End = Buffer.limit() - 4;
+                CRC32 Checksum = new CRC32();
+                Checksum.update(Buffer.duplicate().position(0).limit(End));
+                if ((int) Checksum.getValue() != Buffer.getInt(End)) return null;
+                Buffer.limit(End);
+                int SourceLength = Buffer.getInt();
+                if (SourceLength < 0 || SourceLength > Buffer.remaining()) return null;
+                byte[] SourceBytes = new byte[SourceLength];
+                Buffer.get(SourceBytes);
+                if (!Source.equals(new String(SourceBytes, StandardCharsets.UTF_8))) return null;
+                long StoredStamp = Buffer.getLong();
+                long StoredSize = Buffer.getLong();
+                if ((Stamp != -1 && Stamp != StoredStamp) || (SourceSize != -1 && SourceSize != StoredSize)) return null;
+
+                int Count = Buffer.getInt();
+                /* На каждый путь минимум 17 байтов колонок и 2 байта длин */
+                if (Count < 0 || Count * 19L > Buffer.remaining()) return null;
+                int SizesAt = Buffer.position();
+                int ModifiedAt = SizesAt + Count * 8;
+                int FlagsAt = ModifiedAt + Count * 8;
+                Buffer.position(FlagsAt + Count);
+
+                TreeMap<String, Item> Result = new TreeMap<>();
+                byte[] Name = new byte[256];
+                int Previous = 0;
+                for (int i = 0; i < Count; i++) {
+                    int Shared = ReadVarInt(Buffer);
+                    int Suffix = ReadVarInt(Buffer);
+                    if (Shared < 0 || Shared > Previous || Suffix < 0 || Suffix > Buffer.remaining()) return null;
+                    Previous = Shared + Suffix;
+                    if (Shared + Suffix > Name.length) Name = Arrays.copyOf(Name, Math.max(Name.length * 2, Shared + Suffix));
+                    Buffer.get(Name, Shared, Suffix);
+                    Result.put(new String(Name, 0, Shared + Suffix, StandardCharsets.UTF_8),
+                            new Item(Buffer.getLong(SizesAt + i * 8), Buffer.getLong(ModifiedAt + i * 8), Buffer.get(FlagsAt + i) != 0));
+                }
+                return Result;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        private static void WriteVarInt(DataOutputStream OUT, int Value) throws IOException {
+            while ((Value & ~0x7f) != 0) {
+                OUT.writeByte((Value & 0x7f) | 0x80);
+                Value >>>= 7;
+            }
+            OUT.writeByte(Value);
+        }
+
+        private static int ReadVarInt(ByteBuffer Buffer) throws IOException {
+            int Result = 0;
+            for (int Shift = 0; Shift < 32; Shift += 7) {
+                byte B = Buffer.get();
+                Result |= (B & 0x7f) << Shift;
+                if (B >= 0) return Result;
+            }
+            throw new IOException("Слишком длинное число в снимке!");
+        }
+
+        /**
+         * Атрибуты одного пути в снимке
+         */
+        static final class Item{
+            final long Size;
+            final long Modified;
+            final boolean Directory;
+
+            Item(long Size, long Modified, boolean Directory){
+                this.Size = Size;
+                this.Modified = Modified;
+                this.Directory = Directory;
+            }
+        }
+    }
+
+    /**
+     * Под класс {@link ExplorerAction}, содержащий в себе асинхронные версии функций и пакетные операции<br>
+     * Операции выполняются на виртуальных потоках (если Java их поддерживает, иначе на обычных),
+     * количество одновременных операций с диском ограничено ({@link #SetMaxConcurrency(int)})
+     */
+    public static class ASYNC{
+        private static final int DEFAULT_CONCURRENCY = 64;
+        private static final ExecutorService Executor = CreateExecutor();
+        private static volatile Semaphore Limit = new Semaphore(DEFAULT_CONCURRENCY);
+
+        /**
+         * Операция над одним путём
+         * @param <T> Тип результата
+         */
+        @FunctionalInterface
+        public interface ACTION<T>{
+            T Run(String Path) throws Exception;
+        }
+
+        /**
+         * Результат одной операции из пакета: значение или ошибка
+         * @param <T> Тип результата
+         */
+        public static final class RESULT<T>{
+            /** Путь, над которым выполнялась операция */
+            public final String Path;
+            /** Результат операции (<code>null</code> если была ошибка) */
+            public final T Value;
+            /** Ошибка операции (<code>null</code> если ошибки не было) */
+            public final Exception Error;
+
+            RESULT(String Path, T Value, Exception Error){
+                this.Path = Path;
+                this.Value = Value;
+                this.Error = Error;
+            }
+
+            /**
+             * @return "Операция прошла без ошибки?"
+             */
+            public boolean IsOk(){ return Error == null; }
+        }
+
+        /**
+         * Меняет максимальное количество одновременных операций с диском (для новых операций)<br>
+         * Без виртуальных потоков так же меняет размер пула потоков
+         * @param Max Максимальное количество
+         */
+        public static synchronized void SetMaxConcurrency(int Max){
+            Max = Math.max(Max, 1);
+            if (Executor instanceof ThreadPoolExecutor) {
+                ThreadPoolExecutor Pool = (ThreadPoolExecutor) Executor;
+                /* Core не может быть больше Max, поэтому порядок зависит от того, растёт пул или уменьшается */
+                if (Max > Pool.getMaximumPoolSize()) {
+                    Pool.setMaximumPoolSize(Max);
+                    Pool.setCorePoolSize(Max);
+                } else {
+                    Pool.setCorePoolSize(Max);
+                    Pool.setMaximumPoolSize(Max);
+                }
+            }
+            Limit = new Semaphore(Max);
+        }
+
+        /**
+         * Выполняет операцию асинхронно, с учётом ограничения одновременных операций
+         * @param Path Путь
+         * @param Action Операция
+         * @return Результат операции
+         * @param <T> Тип результата
+         */
+        public static <T> CompletableFuture<T> Run(String Path, ACTION<T> Action){
+            Semaphore Permits = Limit;
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Permits.acquire();
+                    try {
+                        return Action.Run(Path);
+                    } finally {
+                        Permits.release();
+                    }
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, Executor);
+        }
+
+        /**
+         * Выполняет операцию для всех путей, ошибка одного пути не прерывает остальные
+         * @param Paths Пути
+         * @param Action Операция
+         * @return Результаты в том же порядке, что и Paths
+         * @param <T> Тип результата
+         */
+        public static <T> CompletableFuture<List<RESULT<T>>> Batch(List<String> Paths, ACTION<T> Action){
+            List<CompletableFuture<RESULT<T>>> Futures = new ArrayList<>(Paths.size());
+            for (String Path : Paths) {
+                Futures.add(Run(Path, Action).handle((Value, Error) -> new RESULT<>(Path, Value, Error == null ? null : Unwrap(Error))));
+            }
+            return CompletableFuture.allOf(Futures.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+                List<RESULT<T>> Result = new ArrayList<>(Futures.size());
+                for (CompletableFuture<RESULT<T>> Future : Futures) Result.add(Future.join());
+                return Result;
+            });
+        }
+
+        /**
+         * Асинхронный {@link ExplorerAction#ReadFile(String)}
+         * @param Path Путь до файла
+         * @return Данные внутри файла
+         */
+        public static CompletableFuture<String> ReadFile(String Path){ return Run(Path, ExplorerAction::ReadFile); }
+
+        /**
+         * Асинхронный {@link ExplorerAction#WriteFile(String, String)}
+         * @param Path Путь до файла
+         * @param Content Записываемые данные
+         * @return Записываемые данные
+         */
+        public static CompletableFuture<String> WriteFile(String Path, String Content){ return Run(Path, p -> ExplorerAction.WriteFile(p, Content)); }
+
+        /**
+         * Асинхронный {@link ExplorerAction#CreateFile(String)}
+         * @param Path Путь, где создать файл с названием файла и расширением
+         * @return Путь до файла
+         */
+        public static CompletableFuture<String> CreateFile(String Path){ return Run(Path, ExplorerAction::CreateFile); }
+
+        /**
+         * Асинхронный {@link ExplorerAction#CreateFile(String, String)}
+         * @param Path Путь, где создать файл с названием файла и расширением
+         * @param Content Начальные данные для файла
+         * @return Путь до файла
+         */
+        public static CompletableFuture<String> CreateFile(String Path, String Content){ return Run(Path, p -> ExplorerAction.CreateFile(p, Content)); }
+
+        /**
+         * Асинхронный {@link ExplorerAction#DeleteFile(String)}
+         * @param Path Путь до файла
+         * @return Завершение операции
+         */
+        public static CompletableFuture<Void> DeleteFile(String Path){ return Run(Path, p -> { ExplorerAction.DeleteFile(p); return null; }); }
+
+        /**
+         * Асинхронный {@link ExplorerAction#CreateFolder(String)}
+         * @param Path Путь содержащий в себе новые папки для создания
+         * @return Путь до последней папки
+         */
+        public static CompletableFuture<String> CreateFolder(String Path){ return Run(Path, ExplorerAction::CreateFolder); }
+
+        /**
+         * Асинхронный {@link ExplorerAction#CompressFile(String, String)}
+         * @param Path Путь до файла
+         * @param NewPath Путь до файла, но файл в формате .gz (в каком месте создать новый файл)
+         * @return Завершение операции
+         */
+        public static CompletableFuture<Void> CompressFile(String Path, String NewPath){ return Run(Path, p -> { ExplorerAction.CompressFile(p, NewPath); return null; }); }
+
+        /**
+         * Читает все указанные файлы
+         * @param Paths Пути до файлов
+         * @return Результаты в том же порядке, что и Paths
+         */
+        public static CompletableFuture<List<RESULT<String>>> ReadFiles(List<String> Paths){ return Batch(Paths, ExplorerAction::ReadFile); }
+
+        /**
+         * Записывает данные во все указанные файлы
+         * @param Contents Пути до файлов и записываемые данные
+         * @return Результаты в том же порядке, что и Contents
+         */
+        public static CompletableFuture<List<RESULT<String>>> WriteFiles(Map<String, String> Contents){
+            return Batch(new ArrayList<>(Contents.keySet()), p -> ExplorerAction.WriteFile(p, Contents.get(p)));
+        }
+
+        /**
+         * Создаёт все указанные файлы (пустые)
+         * @param Paths Пути до файлов
+         * @return Результаты в том же порядке, что и Paths
+         */
+        public static CompletableFuture<List<RESULT<String>>> CreateFiles(List<String> Paths){ return Batch(Paths, ExplorerAction::CreateFile); }
+
+        /**
+         * Удаляет все указанные файлы
+         * @param Paths Пути до файлов
+         * @return Результаты в том же порядке, что и Paths
+         */
+        public static CompletableFuture<List<RESULT<Void>>> DeleteFiles(List<String> Paths){ return Batch(Paths, p -> { ExplorerAction.DeleteFile(p); return null; }); }
+
+        /**
+         * Создаёт все указанные папки
+         * @param Paths Пути до папок
+         * @return Результаты в том же порядке, что и Paths
+         */
+        public static CompletableFuture<List<RESULT<String>>> CreateFolders(List<String> Paths){ return Batch(Paths, ExplorerAction::CreateFolder); }
+
+        private static Exception Unwrap(Throwable Error){
+            while (Error instanceof CompletionException && Error.getCause() != null) Error = Error.getCause();
+            return Error instanceof Exception ? (Exception) Error : new Exception(Error);
+        }
+
+        /**
+         * Виртуальные потоки, если Java их поддерживает (21+), иначе пул обычных потоков-демонов размером с {@link #SetMaxConcurrency(int)}<br>
+         * Обычные потоки дорогие, поэтому операции сверх лимита ждут в очереди пула, а не на отдельном потоке
+         */
+        private static ExecutorService CreateExecutor(){
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                ThreadPoolExecutor Pool = new ThreadPoolExecutor(DEFAULT_CONCURRENCY, DEFAULT_CONCURRENCY, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), Task -> {
+                    Thread Result = new Thread(Task, "ExplorerAction-ASYNC");
+                    Result.setDaemon(true);
+                    return Result;
+                });
+                Pool.allowCoreThreadTimeOut(true);
+                return Pool;
+            }
+        }
+    }
+
+    /**
+     * Под класс {@link ExplorerAction}, содержащий в себе метрики операций с файлами (по умолчанию выключены)<br>
+     * Количество вызовов, ошибок, прочитанных и записанных байтов, и гистограммы задержек для каждой операции из {@link OPERATION}<br>
+     * Счётчики - {@link LongAdder} (по ячейке на поток), поэтому запись почти ничего не стоит, а выключенные метрики стоят одно чтение volatile<br>
+     * Данные доступны через {@link #Snapshot()}, и через JMX после {@link #Register()}
+     */
+    public static class METRICS{
+        /**
+         * Имя MBean в JMX
+         */
+        public static final String OBJECT_NAME = "woowzcore.action:type=ExplorerAction";
+
+        /**
+         * Количество корзин гистограммы, корзина i - задержки от 2^(i-1) до 2^i наносекунд
+         */
+        private static final int BUCKETS = 64;
+
+        /**
+         * Операции, для которых собираются метрики
+         */
+        public enum OPERATION{
+            /** {@link ExplorerAction#ReadFile(String)}, {@link ExplorerAction#ReadFileBytes(String)}, {@link ExplorerAction#ReadFileBuffer(String)} */
+            READ_FILE("ReadFile"),
+            /** {@link ExplorerAction#WriteFile(String, ByteBuffer, DURABILITY)} и все WriteFile через него */
+            WRITE_FILE("WriteFile"),
+            /** {@link ExplorerAction#GetAllFilesInFolder(String, FILTER)} и {@link ExplorerAction#GetAllFilesInFolderParallel(String, FILTER, int)} */
+            LIST_FOLDER("GetAllFilesInFolder"),
+            /** {@link ExplorerAction#CompressFile(String, String)} и {@link ExplorerAction#CompressFile(String, String, int, int, int)} (прочитано - исходный файл, записано - .gz) */
+            COMPRESS_FILE("CompressFile"),
+            /** {@link JAR#ReadFile(String)} */
+            JAR_READ_FILE("JAR.ReadFile"),
+            /** {@link JAR#ReadFileBytes(String)} и {@link JAR#ReadFileBuffer(String)} */
+            JAR_READ_FILE_BYTES("JAR.ReadFileBytes"),
+            /** {@link JAR#GetAllFilesInFolder(String, boolean)} */
+            JAR_LIST_FOLDER("JAR.GetAllFilesInFolder");
+
+            /** Название операции (имя метода) */
+            public final String Name;
+
+            OPERATION(String Name){ this.Name = Name; }
+        }
+
+        private static volatile boolean Enabled = false;
+        private static final RECORDER[] Recorders = new RECORDER[OPERATION.values().length];
+        private static ObjectName Registered = null;
+
+        static {
+            for (int i = 0; i < Recorders.length; i++) Recorders[i] = new RECORDER();
+        }
+
+        /**
+         * Включает сбор метрик
+         */
+        public static void Enable(){ Enabled = true; }
+
+        /**
+         * Выключает сбор метрик (собранные данные остаются)
+         */
+        public static void Disable(){ Enabled = false; }
+
+        /**
+         * @return "Метрики собираются?"
+         */
+        public static boolean Enabled(){ return Enabled; }
+
+        /**
+         * Обнуляет все собранные метрики
+         */
+        public static void Reset(){
+            for (RECORDER Recorder : Recorders) Recorder.Reset();
+        }
+
+        /**
+         * Включает сбор метрик и публикует их в JMX (platform MBeanServer, имя {@link #OBJECT_NAME})<br>
+         * Повторный вызов ничего не делает
+         * @throws Exception Если не получилось зарегистрировать MBean
+         */
+        public static synchronized void Register() throws Exception {
+            Enable();
+            if (Registered != null) return;
+            ObjectName Name = new ObjectName(OBJECT_NAME);
+            MBeanServer Server = ManagementFactory.getPlatformMBeanServer();
+            if (!Server.isRegistered(Name)) Server.registerMBean(new BEAN(), Name);
+            Registered = Name;
+        }
+
+        /**
+         * Убирает метрики из JMX (сбор метрик не выключается)
+         */
+        public static synchronized void Unregister(){
+            if (Registered == null) return;
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(Registered);
+            } catch (Exception ignored) {
+            }
+            Registered = null;
+        }
+
+        /**
+         * Получает снимок метрик одной операции
+         * @param Operation Операция
+         * @return Снимок метрик
+         */
+        public static STATS Get(OPERATION Operation){ return Recorders[Operation.ordinal()].Snapshot(Operation); }
+
+        /**
+         * Получает снимок метрик всех операций
+         * @return Снимки метрик (в порядке {@link OPERATION})
+         */
+        public static Map<OPERATION, STATS> Snapshot(){
+            Map<OPERATION, STATS> Result = new EnumMap<>(OPERATION.class);
+            for (OPERATION Operation : OPERATION.values()) Result.put(Operation, Get(Operation));
+            return Result;
+        }
+
+        /**
+         * Начало операции
+         * @return Время начала, или 0 если метрики выключены
+         */
+        static long Start(){ return Enabled ? System.nanoTime() : 0; }
+
+        /**
+         * Успешный конец операции
+         * @param Operation Операция
+         * @param Start Время из {@link #Start()}
+         * @param Read Сколько байтов прочитано
+         * @param Written Сколько байтов записано
+         */
+        static void Done(OPERATION Operation, long Start, long Read, long Written){
+            if (Start == 0) return;
+            RECORDER Recorder = Recorders[Operation.ordinal()];
+            Recorder.Record(System.nanoTime() - Start);
+            if (Read > 0) Recorder.Read.add(Read);
+            if (Written > 0) Recorder.Written.add(Written);
+        }
+
+        /**
+         * Конец операции с ошибкой (время тоже записывается)
+         * @param Operation Операция
+         * @param Start Время из {@link #Start()}
+         */
+        static void Fail(OPERATION Operation, long Start){
+            if (Start == 0) return;
+            RECORDER Recorder = Recorders[Operation.ordinal()];
+            Recorder.Record(System.nanoTime() - Start);
+            Recorder.Errors.increment();
+        }
+
+        /**
+         * Неизменяемый снимок метрик одной операции
+         */
+        public static final class STATS{
+            /** Операция */
+            public final OPERATION Operation;
+            /** Количество вызовов (вместе с ошибками) */
+            public final long Calls;
+            /** Количество вызовов с ошибкой */
+            public final long Errors;
+            /** Прочитано байтов */
+            public final long BytesRead;
+            /** Записано байтов */
+            public final long BytesWritten;
+            /** Суммарное время всех вызовов в наносекундах */
+            public final long TotalNanos;
+            /** Самый долгий вызов в наносекундах */
+            public final long MaxNanos;
+            private final long[] Buckets;
+
+            STATS(OPERATION Operation, long Calls, long Errors, long BytesRead, long BytesWritten, long TotalNanos, long MaxNanos, long[] Buckets){
+                this.Operation = Operation;
+                this.Calls = Calls;
+                this.Errors = Errors;
+                this.BytesRead = BytesRead;
+                this.BytesWritten = BytesWritten;
+                this.TotalNanos = TotalNanos;
+                this.MaxNanos = MaxNanos;
+                this.Buckets = Buckets;
+            }
+
+            /**
+             * @return Среднее время вызова в наносекундах
+             */
+            public long MeanNanos(){ return Calls == 0 ? 0 : TotalNanos / Calls; }
+
+            /**
+             * Получает перцентиль задержки по гистограмме (с точностью до степени двойки, но не больше {@link #MaxNanos})
+             * @param Percent Перцентиль (например 99)
+             * @return Задержка в наносекундах
+             */
+            public long PercentileNanos(double Percent){
+                long Total = 0;
+                for (long Count : Buckets) Total += Count;
+                if (Total == 0) return 0;
+                long Rank = (long) Math.ceil(Total * Math.min(Math.max(Percent, 0), 100) / 100.0);
+                long Seen = 0;
+                for (int i = 0; i < Buckets.length; i++) {
+                    Seen += Buckets[i];
+                    if (Seen >= Math.max(Rank, 1)) return Math.min(i == 0 ? 0 : (i == BUCKETS - 1 ? Long.MAX_VALUE : 1L << i), MaxNanos);
+                }
+                return MaxNanos;
+            }
+
+            /**
+             * @return Копия гистограммы (количество вызовов в каждой корзине)
+             */
+            public long[] GetBuckets(){ return Buckets.clone(); }
+
+            @Override
+            public String toString(){
+                return Operation.Name + "{Calls=" + Calls + ", Errors=" + Errors + ", BytesRead=" + BytesRead + ", BytesWritten=" + BytesWritten
+                        + ", Mean=" + MeanNanos() / 1000 + "us, P50=" + PercentileNanos(50) / 1000 + "us, P99=" + PercentileNanos(99) / 1000
+                        + "us, Max=" + MaxNanos / 1000 + "us}";
+            }
+        }
+
+        /**
+         * Счётчики одной операции
+         */
+        private static final class RECORDER{
+            final LongAdder Errors = new LongAdder();
+            final LongAdder Read = new LongAdder();
+            final LongAdder Written = new LongAdder();
+            final LongAdder Nanos = new LongAdder();
+            final LongAccumulator Max = new LongAccumulator(Math::max, 0);
+            final LongAdder[] Buckets = new LongAdder[BUCKETS];
+
+            RECORDER(){
+                for (int i = 0; i < BUCKETS; i++) Buckets[i] = new LongAdder();
+            }
+
+            void Record(long Elapsed){
+                if (Elapsed < 0) Elapsed = 0;
+                Buckets[Math.min(64 - Long.numberOfLeadingZeros(Elapsed), BUCKETS - 1)].increment();
+                Nanos.add(Elapsed);
+                Max.accumulate(Elapsed);
+            }
+
+            void Reset(){
+                Errors.reset();
+                Read.reset();
+                Written.reset();
+                Nanos.reset();
+                Max.reset();
+                for (LongAdder Bucket : Buckets) Bucket.reset();
+            }
+
+            STATS Snapshot(OPERATION Operation){
+                long[] Counts = new long[BUCKETS];
+                long Calls = 0;
+                for (int i = 0; i < BUCKETS; i++) {
+                    Counts[i] = Buckets[i].sum();
+                    Calls += Counts[i];
+                }
+                return new STATS(Operation, Calls, Errors.sum(), Read.sum(), Written.sum(), Nanos.sum(), Max.get(), Counts);
+            }
+        }
+
+        /**
+         * MBean метрик: атрибуты вида <code>ReadFile.Calls</code>, <code>JAR.ReadFile.P99Micros</code>, и операция <code>Reset</code>
+         */
+        private static final class BEAN implements DynamicMBean{
+            private static final String[] FIELDS = {"Calls", "Errors", "BytesRead", "BytesWritten", "MeanMicros", "P50Micros", "P99Micros", "MaxMicros"};
+
+            @Override
+            public Object getAttribute(String Attribute) throws AttributeNotFoundException {
+                if ("Enabled".equals(Attribute)) return Enabled;
+                int Dot = Attribute.lastIndexOf('.');
+                if (Dot > 0) {
+                    String Name = Attribute.substring(0, Dot);
+                    for (OPERATION Operation : OPERATION.values()) {
+                        if (Operation.Name.equals(Name)) return Field(Get(Operation), Attribute.substring(Dot + 1));
+                    }
+                }
+                throw new AttributeNotFoundException(Attribute);
+            }
+
+            private static Long Field(STATS Stats, String Field) throws AttributeNotFoundException {
+                switch (Field) {
+                    case "Calls": return Stats.Calls;
+                    case "Errors": return Stats.Errors;
+                    case "BytesRead": return Stats.BytesRead;
+                    case "BytesWritten": return Stats.BytesWritten;
+                    case "MeanMicros": return Stats.MeanNanos() / 1000;
+                    case "P50Micros": return Stats.PercentileNanos(50) / 1000;
+                    case "P99Micros": return Stats.PercentileNanos(99) / 1000;
+                    case "MaxMicros": return Stats.MaxNanos / 1000;
+                    default: throw new AttributeNotFoundException(Stats.Operation.Name + "." + Field);
+                }
+            }
+
+            @Override
+            public void setAttribute(javax.management.Attribute Attribute) throws AttributeNotFoundException, InvalidAttributeValueException {
+                if (!"Enabled".equals(Attribute.getName())) throw new AttributeNotFoundException(Attribute.getName());
+                if (!(Attribute.getValue() instanceof Boolean)) throw new InvalidAttributeValueException(Attribute.getName());
+                Enabled = (Boolean) Attribute.getValue();
+            }
+
+            @Override
+            public AttributeList getAttributes(String[] Attributes){
+                AttributeList Result = new AttributeList();
+                for (String Attribute : Attributes) {
+                    try {
+                        Result.add(new javax.management.Attribute(Attribute, getAttribute(Attribute)));
+                    } catch (AttributeNotFoundException ignored) {
+                    }
+                }
+                return Result;
+            }
+
+            @Override
+            public AttributeList setAttributes(AttributeList Attributes){
+                AttributeList Result = new AttributeList();
+                for (javax.management.Attribute Attribute : Attributes.asList()) {
+                    try {
+                        setAttribute(Attribute);
+                        Result.add(Attribute);
+                    } catch (Exception ignored) {
+                    }
+                }
+                return Result;
+            }
+
+            @Override
+            public Object invoke(String Action, Object[] Params, String[] Signature) throws ReflectionException {
+                if ("Reset".equals(Action)) {
+                    Reset();
+                    return null;
+                }
+                throw new ReflectionException(new NoSuchMethodException(Action));
+            }
+
+            @Override
+            public MBeanInfo getMBeanInfo(){
+                List<MBeanAttributeInfo> Attributes = new ArrayList<>();
+                Attributes.add(new MBeanAttributeInfo("Enabled", "boolean", "Метрики собираются?", true, true, true));
+                for (OPERATION Operation : OPERATION.values()) {
+                    for (String Field : FIELDS) {
+                        Attributes.add(new MBeanAttributeInfo(Operation.Name + "." + Field, "long", Operation.Name + " " + Field, true, false, false));
+                    }
+                }
+                MBeanOperationInfo[] Operations = {
+                        new MBeanOperationInfo("Reset", "Обнуляет все собранные метрики", new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION)
+                };
+                return new MBeanInfo(METRICS.class.getName(), "Метрики операций ExplorerAction",
+                        Attributes.toArray(new MBeanAttributeInfo[0]), new MBeanConstructorInfo[0], Operations, new MBeanNotificationInfo[0]);
+            }
+        }
+    }
+
+    /**
+     * Под класс {@link ExplorerAction}, содержащий в себе работу с путями к файлам<br>
+     * Добавление и чтение файлов из путей, исправление путей
+     */
+    public static class PATH{
+        /**
+         * Буфер для {@link #FixPath(String)}, свой на каждый поток
+         */
+        private static final ThreadLocal<StringBuilder> Builder = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+        /**
+         * Получает название файла по указанному пути
+         * @param Path Путь до файла
+         * @return Название файла с расширением
+         * @see #GetClearFileName(String)
+         */
+        public static String GetFileName(String Path){
+            int End = Path.length();
+            while (End > 0 && IsSeparator(Path.charAt(End - 1))) End--;
+            return Path.substring(NameStart(Path, End), End);
+        }
+
+        /**
+         * Получает только название файла по указанному пути
+         * @param Path Путь до файла
+         * @return Название файла без расширения
+         * @throws PathException Если путь не содержит расширение
+         * @see #GetFileName(String) 
+         * @see #GetFileExtension(String) 
+         */
+        public static String GetClearFileName(String Path) throws PathException {
+            /* Название и расширение за один проход по названию файла */
+            int End = Path.length();
+            while (End > 0 && IsSeparator(Path.charAt(End - 1))) End--;
+            int Start = NameStart(Path, End);
+            int Dot = Path.lastIndexOf('.', End - 1);
+            if (Dot < Start || Dot == End - 1) {
+                throw new PathException("Не получилось получить чистое название файла [" + Path + "]!",
+                        new PathException("Не получилось получить расширение файла [" + Path + "]! Указанный путь не содержит расширение!"));
+            }
+            return Path.substring(Start, Dot);
+        }
+
+        /**
+         * Получает расширение файла по указанному пути
+         * @param Path Путь до файла
+         * @return Расширение файла (без точки)
+         * @throws PathException Если путь не содержит расширение
+         */
+        public static String GetFileExtension(String Path) throws PathException {
+            int LastDotIndex = Path.lastIndexOf('.');
+            if(LastDotIndex != -1 && LastDotIndex < Path.length() - 1){
+                return Path.substring(LastDotIndex + 1);
+            }else{
+                throw new PathException("Не получилось получить расширение файла [" + Path + "]! Указанный путь не содержит расширение!");
+            }
+        }
+
+        /**
+         * Исправляет ошибки в пути файла, заменяет <code>\</code> на <code>/</code>,
+         * удаляет <code>/</code> из начала и конца, удаляет пробелы из начала и конца,
+         * заменяет все неподходящие символы на <code>_</code>
+         * @param Path Путь
+         * @return Исправленный путь
+         */
+        public static String FixPath(String Path){
+            if(Path == null || Path.isEmpty()) return "";
+
+            StringBuilder Result = Builder.get();
+            Result.setLength(0);
+            FixPath(Path, Result);
+            return Result.toString();
+        }
+
+        /**
+         * Исправляет ошибки в пути файла, так же как {@link #FixPath(String)}, но за один проход, без регулярных выражений
+         * и без создания строк: результат дописывается в конец Result
+         * @param Path Путь
+         * @param Result Куда дописать исправленный путь
+         * @return Result
+         */
+        public static StringBuilder FixPath(CharSequence Path, StringBuilder Result){
+            if(Path == null) return Result;
+            int Length = Path.length();
+            int Base = Result.length();
+            boolean HasDisk = Length > 1 && Path.charAt(1) == ':';
+
+            /* Заменяем все \ и / (не только одиночные) на один /, и неподходящие символы на _ */
+            for (int i = 0; i < Length; i++) {
+                char C = Path.charAt(i);
+                if (C == '/' || C == '\\') {
+                    if (Result.length() == Base || Result.charAt(Result.length() - 1) != '/') Result.append('/');
+                } else if (C == '<' || C == '*' || C == '>' || C == '?' || C == '\'' || C == '"' || C == ':' || C == '|') {
+                    Result.append('_');
+                } else {
+                    Result.append(C);
+                }
+            }
+            /* Убираем / из начала и конца (после замены он там максимум один) */
+            if (Result.length() > Base && Result.charAt(Base) == '/') Result.deleteCharAt(Base);
+            if (Result.length() > Base && Result.charAt(Result.length() - 1) == '/') Result.setLength(Result.length() - 1);
+            /* Убираем пробелы из начала и конца */
+            int End = Result.length();
+            while (End > Base && Result.charAt(End - 1) <= ' ') End--;
+            Result.setLength(End);
+            int Start = Base;
+            while (Start < End && Result.charAt(Start) <= ' ') Start++;
+            Result.delete(Base, Start);
+
+            /* Заменить _ на : если в начале пути указан диск */
+            if (HasDisk && Result.length() - Base > 1) {
+                Result.setCharAt(Base + 1, ':');
+            }
+            return Result;
+        }
+
+        /**
+         * Удаляет из пути, путь до папки с ресурсами игры {@linkplain JAR#Prefix}
+         * @param Path Путь до файла
+         * @return Путь до файла без папки с ресурсами игры
+         */
+        public static String ShortResourcePath(String Path){
+            if(Path == null || Path.isEmpty()) return "";
+
+            StringBuilder Result = Builder.get();
+            Result.setLength(0);
+            FixPath(Path, Result);
+            /* Убрать префикс Resource файла */
+            int From = StartsWith(Result, JAR.Prefix) ? JAR.Prefix.length() : 0;
+            return Result.substring(From);
+        }
+
+        private static boolean IsSeparator(char C){ return C == '/' || C == File.separatorChar; }
+
+        private static int NameStart(CharSequence Path, int End){
+            int Start = End;
+            while (Start > 0 && !IsSeparator(Path.charAt(Start - 1))) Start--;
+            return Start;
+        }
+
+        private static boolean StartsWith(CharSequence Text, String Prefix){
+            if (Text.length() < Prefix.length()) return false;
+            for (int i = 0; i < Prefix.length(); i++) {
+                if (Text.charAt(i) != Prefix.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Исправленный путь ({@link #FixPath(String)}) с заранее посчитанными названием файла, расширением и хэшем<br>
+         * Неизменяемый: после создания получение названия, расширения, {@link #ShortResourcePath(String)} и поиск в <code>HashMap</code>
+         * ничего не считают заново
+         */
+        public static final class KEY implements Comparable<KEY>{
+            private final String Path;
+            private final String Name;
+            private final String ClearName;
+            private final String Extension;
+            private final String Short;
+            private final int Hash;
+
+            /**
+             * Создаёт ключ из пути (путь исправляется через {@link #FixPath(CharSequence, StringBuilder)})
+             * @param Path Путь
+             */
+            public KEY(CharSequence Path){
+                StringBuilder Fixed = Builder.get();
+                Fixed.setLength(0);
+                FixPath(Path, Fixed);
+                this.Path = Fixed.toString();
+
+                int Start = this.Path.lastIndexOf('/') + 1;
+                int Dot = this.Path.lastIndexOf('.');
+                boolean HasExtension = Dot >= Start && Dot < this.Path.length() - 1;
+                this.Name = this.Path.substring(Start);
+                this.ClearName = HasExtension ? this.Path.substring(Start, Dot) : this.Name;
+                this.Extension = HasExtension ? this.Path.substring(Dot + 1) : null;
+                this.Short = this.Path.startsWith(JAR.Prefix) ? this.Path.substring(JAR.Prefix.length()) : this.Path;
+                this.Hash = this.Path.hashCode();
+            }
+
+            /**
+             * @return Исправленный путь
+             */
+            public String GetPath(){ return Path; }
+
+            /**
+             * @return Название файла с расширением
+             */
+            public String GetFileName(){ return Name; }
+
+            /**
+             * @return Название файла без расширения (если расширения нет - всё название)
+             */
+            public String GetClearFileName(){ return ClearName; }
+
+            /**
+             * @return Расширение файла (без точки), или <code>null</code> если его нет
+             */
+            public String GetFileExtension(){ return Extension; }
+
+            /**
+             * @return Путь без папки с ресурсами игры {@linkplain JAR#Prefix}
+             */
+            public String ShortResourcePath(){ return Short; }
+
+            @Override
+            public boolean equals(Object Other){
+                if (this == Other) return true;
+                if (!(Other instanceof KEY)) return false;
+                KEY Key = (KEY) Other;
+                return Hash == Key.Hash && Path.equals(Key.Path);
+            }
+
+            @Override
+            public int hashCode(){ return Hash; }
+
+            @Override
+            public int compareTo(KEY Other){ return Path.compareTo(Other.Path); }
+
+            @Override
+            public String toString(){ return Path; }
+        }
+    }
+
+    /**
+     * Под класс {@link ExplorerAction}, содержащий в себе работу с Jar файлами<br>
+     * Позволяет читать ресурсы прямиком внутри игры <code>assets/</code> и т.д
+     */
     public static class JAR{
         private static final ClassLoader CL = ExplorerAction.JAR.class.getClassLoader();
         /**
@@ -379,47 +3695,128 @@ public class ExplorerAction {
          */
         public static String ReadFile(String Path) throws FileException {
             Path = Prefix + Path;
-            try (InputStream IS = CL.getResourceAsStream(Path)) {
-                if (IS != null){
-                    Scanner scanner = new Scanner(IS);
-                    StringBuilder Result = new StringBuilder();
-                    while (scanner.hasNextLine()) {
-                        Result.append(scanner.nextLine()).append("\n");
+            long Start = METRICS.Start();
+            try {
+                if (CACHE.Enabled()) {
+                    CACHE.Entry Entry = CACHE.Load(Path);
+                    String Text = Entry.Text;
+                    if (Text == null) {
+                        /* Декодируем прямо из закэшированного буфера, без копии массива */
+                        Text = ReadText(Entry.Buffer());
+                        CACHE.PutText(Path, Entry, Text);
                     }
-                    return Result.toString();
-                }else{
+                    METRICS.Done(METRICS.OPERATION.JAR_READ_FILE, Start, Entry.Size(), 0);
+                    return Text;
+                }
+                byte[] Bytes = ReadResource(Path);
+                String Text = ReadText(ByteBuffer.wrap(Bytes));
+                METRICS.Done(METRICS.OPERATION.JAR_READ_FILE, Start, Bytes.length, 0);
+                return Text;
+            } catch (Exception e) {
+                METRICS.Fail(METRICS.OPERATION.JAR_READ_FILE, Start);
+                throw new FileException("Не получилось прочитать файл [" + Path + "] из JAR!", e);
+            }
+        }
+
+        /**
+         * Лениво читает указанный файл построчно, внутри Jar, не загружая его целиком<br>
+         * Поток нужно закрыть (<code>try-with-resources</code>), ошибки во время чтения выбрасываются как {@link UncheckedIOException}
+         * @param Path Путь до файла, внутри Jar
+         * @param Charset Кодировка файла
+         * @return Поток строк файла (без символов конца строки)
+         * @throws FileException Если файл не найден, или не получилось открыть файл
+         */
+        public static Stream<String> ReadLines(String Path, Charset Charset) throws FileException {
+            Path = Prefix + Path;
+            try {
+                InputStream IS = CL.getResourceAsStream(Path);
+                if (IS == null) {
                     throw new FileNotFoundException(FILE_NOT_FOUND_MESSAGE);
                 }
+                return LINES.Stream(IS, Charset);
             } catch (Exception e) {
                 throw new FileException("Не получилось прочитать файл [" + Path + "] из JAR!", e);
             }
         }
 
         /**
-         * Читает данные из указанного файла, внутри Jar
+         * Читает данные из указанного файла, внутри Jar<br>
+         * Возвращается копия (массив можно менять), поэтому при включенном {@link CACHE} лучше {@link #ReadFileBuffer(String)}
          * @param Path Путь до файла, внутри Jar
          * @return Данные внутри файла<br>(в виде <code>byte[]</code>)
          * @throws FileException Если файл не найден, или не получилось прочитать данные из файла
          */
         public static byte[] ReadFileBytes(String Path) throws FileNotFoundException {
             Path = Prefix + Path;
+            long Start = METRICS.Start();
+            try {
+                byte[] Result = CACHE.Enabled() ? CACHE.Load(Path).Bytes() : ReadResource(Path);
+                METRICS.Done(METRICS.OPERATION.JAR_READ_FILE_BYTES, Start, Result.length, 0);
+                return Result;
+            } catch (Exception e) {
+                METRICS.Fail(METRICS.OPERATION.JAR_READ_FILE_BYTES, Start);
+                throw new RuntimeException("Не получилось прочитать файл в виде байтов [" + Path + "] из JAR!", e);
+            }
+        }
+
+        /**
+         * Читает данные из указанного файла, внутри Jar, без копирования из {@link CACHE}<br>
+         * Если кэш выключен, файл просто читается целиком
+         * @param Path Путь до файла, внутри Jar
+         * @return Данные внутри файла<br>(в виде <code>ByteBuffer</code> только для чтения, может быть off-heap)
+         * @throws FileException Если файл не найден, или не получилось прочитать данные из файла
+         */
+        public static ByteBuffer ReadFileBuffer(String Path) throws FileException {
+            Path = Prefix + Path;
+            long Start = METRICS.Start();
+            try {
+                ByteBuffer Result = CACHE.Enabled() ? CACHE.Load(Path).Buffer() : ByteBuffer.wrap(ReadResource(Path)).asReadOnlyBuffer();
+                METRICS.Done(METRICS.OPERATION.JAR_READ_FILE_BYTES, Start, Result.remaining(), 0);
+                return Result;
+            } catch (Exception e) {
+                METRICS.Fail(METRICS.OPERATION.JAR_READ_FILE_BYTES, Start);
+                throw new FileException("Не получилось прочитать файл в виде байтов [" + Path + "] из JAR!", e);
+            }
+        }
+
+        private static byte[] ReadResource(String Path) throws IOException {
             try (InputStream IS = CL.getResourceAsStream(Path)) {
                 if (IS != null){
-                    ByteArrayOutputStream BAOS = new ByteArrayOutputStream();
-                    int BytesRead;
-                    byte[] DataBuffer = new byte[1024];
-                    while ((BytesRead = IS.read(DataBuffer, 0, DataBuffer.length)) != -1) {
-                        BAOS.write(DataBuffer, 0, BytesRead);
-                    }
-                    return BAOS.toByteArray();
+                    return IS.readAllBytes();
                 }else{
                     throw new FileNotFoundException(FILE_NOT_FOUND_MESSAGE);
                 }
-            } catch (Exception e) {
-                throw new RuntimeException("Не получилось прочитать файл в виде байтов [" + Path + "] из JAR!", e);
             }
         }
 
+        /**
+         * Декодирует текст (в кодировке по умолчанию, как {@link Scanner}), каждая строка заканчивается на <code>\n</code>
+         * @param Data Данные файла (не меняется)
+         * @return Текст
+         */
+        private static String ReadText(ByteBuffer Data){
+            CharBuffer Chars = Charset.defaultCharset().decode(Data.duplicate());
+            int Length = Chars.remaining();
+            StringBuilder Result = new StringBuilder(Length + 1);
+            boolean Open = false;
+            for (int i = 0; i < Length; i++) {
+                char C = Chars.get(i);
+                if (C == '\r') {
+                    if (i + 1 < Length && Chars.get(i + 1) == '\n') i++;
+                    Result.append('\n');
+                    Open = false;
+                } else if (C == '\n' || C == '\u2028' || C == '\u2029' || C == '\u0085') {
+                    Result.append('\n');
+                    Open = false;
+                } else {
+                    Result.append(C);
+                    Open = true;
+                }
+            }
+            if (Open) Result.append('\n');
+            return Result.toString();
+        }
+
         /**
          * Проверяет, является ли URL - Jar файлом
          * @param url Указанный URL
@@ -436,53 +3833,240 @@ public class ExplorerAction {
          */
         public static List<String> GetAllFilesInFolder(String Path, boolean ExtraFolders) throws FileException {
             Path = Prefix + Path;
+            long Start = METRICS.Start();
             try {
-                URL url = CL.getResource(Path);
-                if (url == null) {
+                CATALOG.Node Folder = CATALOG.Get().FindFolder(Path);
+                if (Folder == null) {
                     throw new DirectoryNotFoundException(FOLDER_NOT_FOUND_MESSAGE);
                 }
 
-                if(ThatJAR(url)){
-                    List<String> result = new ArrayList<>();
-                    String jarPath = url.getPath();
-                    String[] jarParts = jarPath.split("!");
-                    String jarFile = jarParts[0].substring(5);
+                List<String> Result = new ArrayList<>();
+                Folder.Collect(Result, ExtraFolders);
+                METRICS.Done(METRICS.OPERATION.JAR_LIST_FOLDER, Start, 0, 0);
+                return Result;
+            }catch (Exception e){
+                METRICS.Fail(METRICS.OPERATION.JAR_LIST_FOLDER, Start);
+                throw new FileException("Не получилось получить все файлы из папки [" + Path +"] из JAR!", e);
+            }
+        }
 
-                    try (FileSystem fs = FileSystems.newFileSystem(URI.create("jar:file:" + jarFile), Collections.emptyMap())) {
-                        Path jarRoot = fs.getPath(jarParts[1]);
-                        Files.walkFileTree(jarRoot, new SimpleFileVisitor<Path>() {
-                            @Override
-                            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                                if (!attrs.isDirectory()) {
-                                    result.add(file.toString());
-                                }
-                                return FileVisitResult.CONTINUE;
-                            }
+        /**
+         * Проверяет, существует ли файл или папка по указанному пути, внутри Jar<br>
+         * Не обращается к диску, ответ берётся из {@link CATALOG}
+         * @param Path Путь до файла или папки, внутри Jar
+         * @return "Существует файл или папка по указанному пути?"
+         */
+        public static boolean HasFile(String Path){
+            try {
+                CATALOG Catalog = CATALOG.Get();
+                Path = Prefix + Path;
+                return Catalog.FindFile(Path) != null || Catalog.FindFolder(Path) != null;
+            } catch (Exception e) {
+                return false;
+            }
+        }
 
-                            @Override
-                            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                                if (!ExtraFolders && !dir.equals(jarRoot)) {
-                                    return FileVisitResult.SKIP_SUBTREE;
+        /**
+         * Сбрасывает {@link CATALOG}, при следующем обращении он будет построен заново<br>
+         * Нужно, если ресурсы поменялись во время работы (например, при запуске из папки, а не из Jar)
+         */
+        public static void ResetCatalog(){ CATALOG.Reset(); }
+
+        /**
+         * Каталог ресурсов внутри {@linkplain JAR#Prefix}, в виде префиксного дерева папок<br>
+         * Строится один раз (лениво): для Jar читается только таблица записей, для папки - один обход;
+         * после этого получение списка файлов и проверка существования не обращаются к диску
+         */
+        public static final class CATALOG{
+            private static volatile CATALOG Instance;
+            private static volatile String SnapshotFile = null;
+
+            /**
+             * Корень дерева (папка, содержащая {@linkplain JAR#Prefix})
+             */
+            private final Node Root = new Node();
+
+            private CATALOG(){}
+
+            /**
+             * Получает каталог, строит его при первом обращении
+             * @return Каталог ресурсов
+             * @throws FileException Если папка с ресурсами не найдена, или не получилось прочитать Jar файл
+             */
+            public static CATALOG Get() throws FileException {
+                CATALOG Result = Instance;
+                if (Result == null) {
+                    synchronized (CATALOG.class) {
+                        Result = Instance;
+                        if (Result == null) {
+                            Result = Build();
+                            Instance = Result;
+                        }
+                    }
+                }
+                return Result;
+            }
+
+            /**
+             * Указывает файл {@link SNAPSHOT}, в котором каталог сохраняется между запусками<br>
+             * Для Jar снимок проверяется по времени модификации и размеру Jar, для папки - по времени модификации под папок<br>
+             * Если ресурсы лежат в нескольких Jar/папках, для второго и следующих используются файлы <code>SnapshotFile.1</code>, <code>SnapshotFile.2</code>...
+             * @param SnapshotFile Путь до файла снимка (<code>null</code> - не использовать снимок)
+             */
+            public static void UseSnapshot(String SnapshotFile){
+                CATALOG.SnapshotFile = SnapshotFile;
+                Reset();
+            }
+
+            /**
+             * Сбрасывает построенный каталог
+             */
+            public static void Reset(){
+                synchronized (CATALOG.class) {
+                    Instance = null;
+                }
+            }
+
+            private static CATALOG Build() throws FileException {
+                try {
+                    /* Папка с ресурсами может быть в нескольких Jar/папках classpath, каталог объединяет их все */
+                    Enumeration<URL> URLs = CL.getResources(Prefix);
+                    if (!URLs.hasMoreElements()) {
+                        throw new DirectoryNotFoundException(FOLDER_NOT_FOUND_MESSAGE);
+                    }
+
+                    CATALOG Result = new CATALOG();
+                    String Snapshot = SnapshotFile;
+                    for (int i = 0; URLs.hasMoreElements(); i++) {
+                        Result.AddRoot(URLs.nextElement(), Snapshot == null ? null : (i == 0 ? Snapshot : Snapshot + "." + i));
+                    }
+                    return Result;
+                } catch (Exception e) {
+                    throw new FileException("Не получилось построить каталог ресурсов JAR!", e);
+                }
+            }
+
+            /**
+             * Добавляет в каталог все ресурсы из одного Jar файла или папки classpath
+             * @param url URL папки {@linkplain JAR#Prefix} внутри Jar или папки
+             * @param Snapshot Файл снимка для этого Jar или папки (<code>null</code> - не использовать снимок)
+             */
+            private void AddRoot(URL url, String Snapshot) throws Exception {
+                if (ThatJAR(url)) {
+                    URL JarFile = ((JarURLConnection) url.openConnection()).getJarFileURL();
+                    Path Jar = Paths.get(JarFile.toURI());
+                    BasicFileAttributes JarAttrs = Files.readAttributes(Jar, BasicFileAttributes.class);
+                    long Stamp = JarAttrs.lastModifiedTime().toMillis();
+
+                    /* Если Jar не менялся, берём список записей из снимка, а не из центрального каталога */
+                    SortedMap<String, SNAPSHOT.Item> Items = Snapshot == null ? null : SNAPSHOT.Read(Paths.get(Snapshot), Jar.toString(), Stamp, JarAttrs.size());
+                    if (Items == null) {
+                        Items = new TreeMap<>();
+                        try (ZipFile Zip = new ZipFile(Jar.toFile())) {
+                            Enumeration<? extends ZipEntry> Entries = Zip.entries();
+                            while (Entries.hasMoreElements()) {
+                                ZipEntry Entry = Entries.nextElement();
+                                if (Entry.getName().startsWith(Prefix)) {
+                                    Items.put(Entry.getName(), new SNAPSHOT.Item(Entry.getSize(), Entry.getTime(), Entry.isDirectory()));
                                 }
-                                return FileVisitResult.CONTINUE;
                             }
-                        });
-                    } catch (Exception e) {
-                        throw new FileException("Не получилось получить доступ к JAR файлу!", e);
+                        }
+                        if (Snapshot != null) SNAPSHOT.Write(Paths.get(Snapshot), Jar.toString(), Stamp, JarAttrs.size(), Items);
                     }
-                    return result;
-                }else{
-                    List<String> AllFiles = ExplorerAction.GetAllFilesInFolder(Path, ExtraFolders);
-                    List<String> Result = new ArrayList<>();
-                    String FolderPath = PATH.FixPath(url.getPath()).replace(Path,"");
-                    for(String FilePath : AllFiles){
-                        FilePath = FilePath.substring(FolderPath.length());
-                        Result.add(FilePath);
+                    for (Map.Entry<String, SNAPSHOT.Item> Entry : Items.entrySet()) {
+                        Add(Entry.getKey(), Entry.getValue().Directory);
+                    }
+                } else {
+                    Path Folder = Paths.get(url.toURI());
+                    Path Root = Folder.getParent();
+                    if (Snapshot != null) {
+                        SNAPSHOT Listing = SNAPSHOT.Load(Folder.toString(), Snapshot);
+                        if (Listing.IsChanged()) Listing.Save(Snapshot);
+                        for (Map.Entry<String, SNAPSHOT.Item> Entry : Listing.Items.entrySet()) {
+                            if (!Entry.getKey().equals(".")) Add(Prefix + Entry.getKey(), Entry.getValue().Directory);
+                        }
+                    } else {
+                        try (Stream<Path> stream = Files.walk(Folder)) {
+                            stream.forEach(file -> Add(Root.relativize(file).toString().replace('\\', '/'), Files.isDirectory(file)));
+                        }
+                    }
+                }
+            }
+
+            private void Add(String EntryName, boolean Directory){ Add(EntryName, Directory, "/" + EntryName); }
+
+            /**
+             * Добавляет запись в дерево
+             * @param EntryName Путь записи (через <code>/</code>)
+             * @param Directory Это папка?
+             * @param Value Что вернуть для этого файла при получении списка файлов
+             */
+            void Add(String EntryName, boolean Directory, String Value){
+                Node Current = Root;
+                int Start = 0;
+                int Length = EntryName.length();
+                while (Start < Length) {
+                    int End = EntryName.indexOf('/', Start);
+                    if (End == -1) End = Length;
+                    if (End > Start) {
+                        String Name = EntryName.substring(Start, End);
+                        if (End == Length && !Directory) {
+                            /* Как и ClassLoader, при одинаковых путях побеждает первый Jar/папка в classpath */
+                            Current.Files.putIfAbsent(Name, Value);
+                        } else {
+                            Current = Current.Folders.computeIfAbsent(Name, k -> new Node());
+                        }
+                    }
+                    Start = End + 1;
+                }
+            }
+
+            /**
+             * Ищет папку по указанному пути
+             * @param Path Полный путь до папки (вместе с {@linkplain JAR#Prefix})
+             * @return Узел папки, или <code>null</code> если папка не найдена
+             */
+            Node FindFolder(String Path){
+                Node Current = Root;
+                int Start = 0;
+                int Length = Path.length();
+                while (Start < Length && Current != null) {
+                    int End = Path.indexOf('/', Start);
+                    if (End == -1) End = Length;
+                    if (End > Start) {
+                        Current = Current.Folders.get(Path.substring(Start, End));
+                    }
+                    Start = End + 1;
+                }
+                return Current;
+            }
+
+            /**
+             * Ищет файл по указанному пути
+             * @param Path Полный путь до файла (вместе с {@linkplain JAR#Prefix})
+             * @return Путь до файла внутри Jar, или <code>null</code> если файл не найден
+             */
+            String FindFile(String Path){
+                int Slash = Path.lastIndexOf('/');
+                Node Folder = Slash == -1 ? Root : FindFolder(Path.substring(0, Slash));
+                return Folder == null ? null : Folder.Files.get(Path.substring(Slash + 1));
+            }
+
+            /**
+             * Узел префиксного дерева, одна папка
+             */
+            static final class Node{
+                final Map<String, Node> Folders = new LinkedHashMap<>();
+                final Map<String, String> Files = new LinkedHashMap<>();
+
+                void Collect(List<String> Result, boolean ExtraFolders){
+                    Result.addAll(Files.values());
+                    if (ExtraFolders) {
+                        for (Node Folder : Folders.values()) {
+                            Folder.Collect(Result, true);
+                        }
                     }
-                    return Result;
                 }
-            }catch (Exception e){
-                throw new FileException("Не получилось получить все файлы из папки [" + Path +"] из JAR!", e);
             }
         }
 
@@ -493,5 +4077,427 @@ public class ExplorerAction {
          * @throws FileException Если папка не найдена, или не получилось получить доступ к Jar файлу, или не получилось получить все файлы внутри папки
          */
         public static List<String> GetAllFilesInFolder(String Path) throws FileException { return GetAllFilesInFolder(Path, false); }
+
+        /**
+         * Кэш прочитанных ресурсов Jar ({@link #ReadFile(String)}, {@link #ReadFileBytes(String)}, {@link #ReadFileBuffer(String)})<br>
+         * По умолчанию выключен, включается через {@link #Enable(long, int)}; ограничен по размеру в байтах,
+         * при переполнении удаляются давно не используемые файлы (LRU).
+         * Большие файлы можно хранить off-heap, в direct {@link ByteBuffer}
+         */
+        public static final class CACHE{
+            private static final Map<String, Entry> Entries = new LinkedHashMap<>(64, 0.75f, true);
+            private static final LongAdder Hits      = new LongAdder();
+            private static final LongAdder Misses    = new LongAdder();
+            private static final LongAdder Evictions = new LongAdder();
+
+            private static volatile boolean Enabled = false;
+            private static long MaxBytes = 0;
+            private static int OffHeapFrom = Integer.MAX_VALUE;
+            private static long Size = 0;
+
+            private CACHE(){}
+
+            /**
+             * Включает кэш, все файлы хранятся в heap
+             * @param MaxBytes Максимальный размер кэша в байтах
+             */
+            public static void Enable(long MaxBytes){ Enable(MaxBytes, Integer.MAX_VALUE); }
+
+            /**
+             * Включает кэш
+             * @param MaxBytes Максимальный размер кэша в байтах
+             * @param OffHeapFrom Файлы начиная с этого размера (в байтах) хранятся off-heap
+             */
+            public static synchronized void Enable(long MaxBytes, int OffHeapFrom){
+                CACHE.MaxBytes = Math.max(0, MaxBytes);
+                CACHE.OffHeapFrom = Math.max(0, OffHeapFrom);
+                Enabled = true;
+                Trim();
+            }
+
+            /**
+             * Выключает кэш и очищает его
+             */
+            public static synchronized void Disable(){
+                Enabled = false;
+                Clear();
+            }
+
+            /**
+             * Очищает кэш (счётчики не сбрасываются)
+             */
+            public static synchronized void Clear(){
+                Entries.clear();
+                Size = 0;
+            }
+
+            /**
+             * @return "Кэш включен?"
+             */
+            public static boolean Enabled(){ return Enabled; }
+
+            /**
+             * @return Количество чтений, найденных в кэше
+             */
+            public static long GetHits(){ return Hits.sum(); }
+
+            /**
+             * @return Количество чтений, которых не было в кэше
+             */
+            public static long GetMisses(){ return Misses.sum(); }
+
+            /**
+             * @return Количество файлов, удалённых из кэша из-за ограничения по размеру
+             */
+            public static long GetEvictions(){ return Evictions.sum(); }
+
+            /**
+             * @return Текущий размер кэша в байтах
+             */
+            public static synchronized long GetSize(){ return Size; }
+
+            /**
+             * Сбрасывает счётчики попаданий, промахов и удалений
+             */
+            public static void ResetCounters(){
+                Hits.reset();
+                Misses.reset();
+                Evictions.reset();
+            }
+
+            static Entry Load(String Path) throws IOException {
+                synchronized (CACHE.class) {
+                    Entry Result = Entries.get(Path);
+                    if (Result != null) {
+                        Hits.increment();
+                        return Result;
+                    }
+                }
+                Misses.increment();
+
+                /* Читаем вне блокировки, чтобы долгое чтение не блокировало остальные потоки */
+                byte[] Data = ReadResource(Path);
+                Entry Result;
+                if (Data.length >= OffHeapFrom) {
+                    ByteBuffer Direct = ByteBuffer.allocateDirect(Data.length);
+                    Direct.put(Data).flip();
+                    Result = new Entry(null, Direct);
+                } else {
+                    Result = new Entry(Data, null);
+                }
+
+                synchronized (CACHE.class) {
+                    if (Enabled && Result.Weight <= MaxBytes) {
+                        Entry Old = Entries.put(Path, Result);
+                        if (Old != null) Size -= Old.Weight;
+                        Size += Result.Weight;
+                        Trim();
+                    }
+                }
+                return Result;
+            }
+
+            static synchronized void PutText(String Path, Entry Entry, String Text){
+                Entry.Text = Text;
+                if (Entries.get(Path) == Entry) {
+                    long Weight = (long) Text.length() * 2;
+                    Entry.Weight += Weight;
+                    Size += Weight;
+                    Trim();
+                }
+            }
+
+            private static void Trim(){
+                Iterator<Entry> Iter = Entries.values().iterator();
+                while (Size > MaxBytes && Iter.hasNext()) {
+                    Size -= Iter.next().Weight;
+                    Iter.remove();
+                    Evictions.increment();
+                }
+            }
+
+            /**
+             * Один закэшированный файл
+             */
+            static final class Entry{
+                private final byte[] Heap;
+                private final ByteBuffer Direct;
+                volatile String Text;
+                long Weight;
+
+                Entry(byte[] Heap, ByteBuffer Direct){
+                    this.Heap = Heap;
+                    this.Direct = Direct;
+                    this.Weight = Heap != null ? Heap.length : Direct.capacity();
+                }
+
+                /**
+                 * @return Размер файла в байтах
+                 */
+                int Size(){ return Heap != null ? Heap.length : Direct.capacity(); }
+
+                /**
+                 * @return Копия данных файла
+                 */
+                byte[] Bytes(){
+                    if (Heap != null) return Heap.clone();
+                    byte[] Result = new byte[Direct.capacity()];
+                    Direct.duplicate().get(Result);
+                    return Result;
+                }
+
+                /**
+                 * @return Данные файла без копирования, только для чтения
+                 */
+                ByteBuffer Buffer(){
+                    return Heap != null ? ByteBuffer.wrap(Heap).asReadOnlyBuffer() : Direct.asReadOnlyBuffer();
+                }
+            }
+        }
+    }
+
+    /**
+     * Под класс {@link ExplorerAction}, содержащий в себе работу с архивами (zip, jar) и сжатыми файлами (.gz) без распаковки<br>
+     * Открытые архивы хранятся в пуле (не больше {@value #MAX_OPEN}), центральный каталог каждого архива читается один раз;
+     * если архив поменялся на диске, он открывается заново
+     */
+    public static class ARCHIVE{
+        /**
+         * Максимальное количество одновременно открытых архивов
+         */
+        public static final int MAX_OPEN = 16;
+        private static final Map<Path, Opened> Pool = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * Получает массив всех файлов внутри указанной папки, внутри архива
+         * @param Archive Путь до архива
+         * @param Path Путь до папки внутри архива (<code>""</code> - корень архива)
+         * @param ExtraFolders Так же получить все файлы внутри под папок?
+         * @return Возвращает массив путей до файлов, внутри архива
+         * @throws FileException Если архив или папка не найдены, или не получилось открыть архив
+         */
+        public static List<String> GetAllFilesInFolder(String Archive, String Path, boolean ExtraFolders) throws FileException {
+            try {
+                Opened Zip = Acquire(Archive);
+                try {
+                    JAR.CATALOG.Node Folder = Zip.Catalog.FindFolder(Path);
+                    if (Folder == null) {
+                        throw new DirectoryNotFoundException(FOLDER_NOT_FOUND_MESSAGE);
+                    }
+                    List<String> Result = new ArrayList<>();
+                    Folder.Collect(Result, ExtraFolders);
+                    return Result;
+                } finally {
+                    Zip.Release();
+                }
+            } catch (Exception e) {
+                throw new FileException("Не получилось получить все файлы из папки [" + Path + "] из архива [" + Archive + "]!", e);
+            }
+        }
+
+        /**
+         * Проверяет, существует ли файл или папка внутри архива
+         * @param Archive Путь до архива
+         * @param Path Путь до файла или папки, внутри архива
+         * @return "Существует файл или папка по указанному пути?"
+         */
+        public static boolean HasFile(String Archive, String Path){
+            try {
+                Opened Zip = Acquire(Archive);
+                try {
+                    return Zip.Catalog.FindFile(Path) != null || Zip.Catalog.FindFolder(Path) != null;
+                } finally {
+                    Zip.Release();
+                }
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        /**
+         * Открывает поток для чтения одного файла внутри архива (распаковывается по мере чтения)<br>
+         * Поток нужно закрыть, пока он открыт, архив не закрывается пулом
+         * @param Archive Путь до архива
+         * @param Path Путь до файла, внутри архива
+         * @return Поток данных файла
+         * @throws FileException Если архив или файл не найдены, или не получилось открыть архив
+         */
+        public static InputStream OpenFile(String Archive, String Path) throws FileException {
+            try {
+                Opened Zip = Acquire(Archive);
+                try {
+                    ZipEntry Entry = Zip.Zip.getEntry(Path);
+                    if (Entry == null || Entry.isDirectory()) {
+                        throw new FileNotFoundException(FILE_NOT_FOUND_MESSAGE);
+                    }
+                    return new FilterInputStream(Zip.Zip.getInputStream(Entry)) {
+                        private boolean Closed = false;
+
+                        @Override
+                        public void close() throws IOException {
+                            if (Closed) return;
+                            Closed = true;
+                            try {
+                                super.close();
+                            } finally {
+                                Zip.Release();
+                            }
+                        }
+                    };
+                } catch (Exception e) {
+                    Zip.Release();
+                    throw e;
+                }
+            } catch (Exception e) {
+                throw new FileException("Не получилось открыть файл [" + Path + "] из архива [" + Archive + "]!", e);
+            }
+        }
+
+        /**
+         * Читает данные одного файла внутри архива
+         * @param Archive Путь до архива
+         * @param Path Путь до файла, внутри архива
+         * @return Данные внутри файла<br>(в виде <code>byte[]</code>)
+         * @throws FileException Если архив или файл не найдены, или не получилось прочитать файл
+         */
+        public static byte[] ReadFileBytes(String Archive, String Path) throws FileException {
+            try (InputStream IS = OpenFile(Archive, Path)) {
+                return IS.readAllBytes();
+            } catch (FileException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new FileException("Не получилось прочитать файл [" + Path + "] из архива [" + Archive + "]!", e);
+            }
+        }
+
+        /**
+         * Читает данные одного файла внутри архива как текст
+         * @param Archive Путь до архива
+         * @param Path Путь до файла, внутри архива
+         * @param Charset Кодировка файла
+         * @return Данные внутри файла
+         * @throws FileException Если архив или файл не найдены, или не получилось прочитать файл
+         */
+        public static String ReadFile(String Archive, String Path, Charset Charset) throws FileException {
+            return new String(ReadFileBytes(Archive, Path), Charset);
+        }
+
+        /**
+         * Открывает поток для чтения сжатого файла (.gz), распаковка идёт по мере чтения, без временных файлов
+         * @param Path Путь до .gz файла
+         * @return Поток распакованных данных
+         * @throws FileException Если файл не найден, или это не gzip
+         */
+        public static InputStream OpenGzip(String Path) throws FileException {
+            try {
+                return new GZIPInputStream(Files.newInputStream(Paths.get(Path)), 64 * 1024);
+            } catch (NoSuchFileException e) {
+                throw new FileException("Не получилось открыть сжатый файл [" + Path + "]!", new FileNotFoundException(FILE_NOT_FOUND_MESSAGE));
+            } catch (Exception e) {
+                throw new FileException("Не получилось открыть сжатый файл [" + Path + "]!", e);
+            }
+        }
+
+        /**
+         * Лениво читает сжатый файл (.gz) построчно, распаковка идёт по мере чтения<br>
+         * Поток нужно закрыть (<code>try-with-resources</code>)
+         * @param Path Путь до .gz файла
+         * @param Charset Кодировка файла
+         * @return Поток строк файла (без символов конца строки)
+         * @throws FileException Если файл не найден, или это не gzip
+         */
+        public static Stream<String> ReadGzipLines(String Path, Charset Charset) throws FileException {
+            return LINES.Stream(OpenGzip(Path), Charset);
+        }
+
+        /**
+         * Закрывает все архивы в пуле (используемые сейчас закроются, когда их отпустят)
+         */
+        public static void CloseAll(){
+            synchronized (Pool) {
+                for (Opened Zip : Pool.values()) Zip.Retire();
+                Pool.clear();
+            }
+        }
+
+        private static Opened Acquire(String Archive) throws IOException {
+            Path Key = Paths.get(Archive).toAbsolutePath().normalize();
+            BasicFileAttributes attrs = Files.readAttributes(Key, BasicFileAttributes.class);
+            long Modified = attrs.lastModifiedTime().toMillis();
+            synchronized (Pool) {
+                Opened Result = Pool.get(Key);
+                if (Result != null && Result.Size == attrs.size() && Result.Modified == Modified) {
+                    Result.Users++;
+                    return Result;
+                }
+            }
+            /* Открытие и чтение каталога архива - без блокировки пула, чтобы большой архив не задерживал остальные */
+            Opened Fresh = new Opened(Key, attrs.size(), Modified);
+            synchronized (Pool) {
+                Opened Result = Pool.get(Key);
+                if (Result != null && Result.Size == Fresh.Size && Result.Modified == Fresh.Modified) {
+                    /* Другой поток уже открыл этот же архив */
+                    Fresh.Retire();
+                    Result.Users++;
+                    return Result;
+                }
+                if (Result != null) {
+                    /* Архив поменялся на диске */
+                    Pool.remove(Key);
+                    Result.Retire();
+                }
+                Pool.put(Key, Fresh);
+                if (Pool.size() > MAX_OPEN) {
+                    Iterator<Opened> Oldest = Pool.values().iterator();
+                    Oldest.next().Retire();
+                    Oldest.remove();
+                }
+                Fresh.Users++;
+                return Fresh;
+            }
+        }
+
+        /**
+         * Открытый архив и дерево его записей
+         */
+        private static final class Opened{
+            final ZipFile Zip;
+            final JAR.CATALOG Catalog = new JAR.CATALOG();
+            final long Size;
+            final long Modified;
+            int Users = 0;
+            boolean Closed = false;
+
+            Opened(Path file, long Size, long Modified) throws IOException {
+                this.Zip = new ZipFile(file.toFile());
+                this.Size = Size;
+                this.Modified = Modified;
+                Enumeration<? extends ZipEntry> Entries = Zip.entries();
+                while (Entries.hasMoreElements()) {
+                    ZipEntry Entry = Entries.nextElement();
+                    Catalog.Add(Entry.getName(), Entry.isDirectory(), Entry.getName());
+                }
+            }
+
+            void Release(){
+                synchronized (Pool) {
+                    Users--;
+                    if (Closed && Users == 0) Close();
+                }
+            }
+
+            void Retire(){
+                Closed = true;
+                if (Users == 0) Close();
+            }
+
+            private void Close(){
+                try {
+                    Zip.close();
+                } catch (IOException e) {
+                    /* Уже закрыт */
+                }
+            }
+        }
     }
 }